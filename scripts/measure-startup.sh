@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Compares time-to-ready and first-request latency of the plain JAR against the fast-startup
+# layout the Dockerfile builds (AOT bean factory + CDS archive + fast-startup profile).
+#
+# Needs the usual SPRING_DATASOURCE_* / JWT_SECRET_KEY environment (or .env) and a database
+# whose schema is already in place. Usage: bash scripts/measure-startup.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+WORK=target/startup
+BASE_URL="http://localhost:$PORT"
+
+cd "$(dirname "$0")/.."
+
+if [ "${SKIP_BUILD:-0}" != 1 ]; then
+    sh mvnw -q -Paot -DskipTests clean package
+fi
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+cp target/*.jar "$WORK/app.jar"
+java -Djarmode=tools -jar "$WORK/app.jar" extract --destination "$WORK/extracted" >/dev/null
+
+# Same command line as the Dockerfile; the archive is only used when the classpath matches.
+echo "Training CDS archive..."
+SPRING_DATASOURCE_URL=jdbc:postgresql://localhost/cds-training \
+    java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$WORK/extracted/app.jar" --spring.profiles.active=fast-startup \
+    --audit.enabled=false --cache.invalidation.enabled=false >"$WORK/training.log" 2>&1
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# Invalid credentials: exercises the filter chain, a JPA lookup and the error handler.
+login_ms() {
+    curl -s -o /dev/null -w '%{time_total}' -X POST -H 'Content-Type: application/json' \
+        -d '{"email":"startup-probe@petlytic.invalid","password":"not-a-password"}' "$BASE_URL/auth/login" \
+        | awk '{ printf "%.1f", $1 * 1000 }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+# measure <mode> <run> <command...>
+measure() {
+    local mode=$1 run=$2
+    shift 2
+
+    local start ready pid first second
+    start=$(now_ms)
+    "$@" --server.port="$PORT" >"$WORK/$mode-$run.log" 2>&1 &
+    pid=$!
+
+    until curl -sf "$BASE_URL/actuator/health/readiness" >/dev/null 2>&1; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode run $run exited before becoming ready, see $WORK/$mode-$run.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready=$(($(now_ms) - start))
+
+    first=$(login_ms)
+    second=$(login_ms)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+
+    printf '%-5s %4s %9s %13s %14s\n' "$mode" "$run" "$ready" "$first" "$second" | tee -a "$WORK/results.txt"
+}
+
+printf '%-5s %4s %9s %13s %14s\n' mode run ready_ms first_req_ms second_req_ms
+for run in $(seq 1 "$RUNS"); do
+    measure jar "$run" java -jar "$WORK/app.jar"
+    measure fast "$run" java -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true \
+        -jar "$WORK/extracted/app.jar" --spring.profiles.active=fast-startup
+done
+
+echo
+echo "Medians:"
+for mode in jar fast; do
+    printf '%-5s ready %s ms, first request %s ms, second request %s ms\n' "$mode" \
+        "$(awk -v m="$mode" '$1 == m { print $3 }' "$WORK/results.txt" | median)" \
+        "$(awk -v m="$mode" '$1 == m { print $4 }' "$WORK/results.txt" | median)" \
+        "$(awk -v m="$mode" '$1 == m { print $5 }' "$WORK/results.txt" | median)"
+done
@@ -1,9 +1,15 @@
 package com.petlytic;
 
+import com.petlytic.cores.BaseRepositoryFactoryBean;
+import com.petlytic.cores.BaseRepositoryImpl;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableJpaRepositories(repositoryBaseClass = BaseRepositoryImpl.class, repositoryFactoryBeanClass = BaseRepositoryFactoryBean.class)
 public class PetlyticApplication {
 
     public static void main(String[] args) {
@@ -1,48 +1,50 @@
 package com.petlytic.configs;
 
+import com.petlytic.cores.coalescing.SingleFlight;
+import com.petlytic.cores.routing.ReplicaRouting;
+import com.petlytic.models.User;
 import com.petlytic.repositories.UserRepository;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Optional;
+import java.util.function.Supplier;
+
 @Configuration
 public class ApplicationConfiguration {
     private final UserRepository userRepository;
-
-    public ApplicationConfiguration(UserRepository userRepository) {
+    private final ReplicaRouting replicaRouting;
+    private final SingleFlight<String, Optional<User>> principalLoads;
+
+    public ApplicationConfiguration(
+            UserRepository userRepository,
+            ReplicaRouting replicaRouting,
+            SingleFlight<String, Optional<User>> principalLoads
+    ) {
         this.userRepository = userRepository;
+        this.replicaRouting = replicaRouting;
+        this.principalLoads = principalLoads;
     }
 
     @Bean
     UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Username not found"));
+        return username -> {
+            Supplier<Optional<User>> lookup = () -> replicaRouting.readYourWrites(username, () -> userRepository.findByEmail(username));
+            // A shared lookup may have started before the user's write; right after one, read on our own.
+            Optional<User> user = replicaRouting.isPinnedToPrimary(username)
+                    ? lookup.get()
+                    // Parallel requests of one client, e.g. after its cache entry expired, share one lookup.
+                    : principalLoads.execute(username, lookup::get);
+            return user.orElseThrow(() -> new UsernameNotFoundException("Username not found"));
+        };
     }
 
     @Bean
     PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-
-    @Bean
-    AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
-    }
-
-    @Bean
-    AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
-
-        return authProvider;
-    }
 }
@@ -0,0 +1,29 @@
+package com.petlytic.configs;
+
+import com.petlytic.cores.coalescing.SingleFlight;
+import com.petlytic.models.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+/**
+ * Single-flight groups for lookups that bursts of requests repeat with the same key.
+ */
+@Configuration
+public class CoalescingConfiguration {
+    private final MeterRegistry meterRegistry;
+
+    public CoalescingConfiguration(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Principals by email, for the JWT filter when a client opens many connections at once.
+     */
+    @Bean
+    public SingleFlight<String, Optional<User>> principalLoads() {
+        return new SingleFlight<>("principal", meterRegistry);
+    }
+}
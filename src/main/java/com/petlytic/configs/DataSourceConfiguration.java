@@ -0,0 +1,98 @@
+package com.petlytic.configs;
+
+import com.petlytic.cores.routing.ReplicaAwareJpaDialect;
+import com.petlytic.cores.routing.ReplicaRouting;
+import com.petlytic.cores.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary and replica pools behind one DataSource. Connections are opened lazily, so by the time
+ * a statement runs the transaction has marked the connection read-only and it can be taken from
+ * the replica. Everything else, including plain JDBC users of the DataSource, gets the primary.
+ * <p>
+ * The beans are the same with or without {@code datasource.replica.url}: a condition on it would
+ * be frozen into an ahead-of-time build. The replica pool is only created at runtime when the URL
+ * is set; without it every connection comes from the primary pool.
+ */
+@Configuration
+public class DataSourceConfiguration {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRouting replicaRouting) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        if (replicaRouting.isEnabled()) {
+            dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(
+                    replicaRouting, primaryDataSource, replicaRouting.getReplicaDataSource()));
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRouting replicaRouting(
+            Environment environment,
+            @Value("${datasource.replica.lag-query:}") String lagQuery,
+            @Value("${datasource.replica.max-lag:2000}") long maxLag,
+            @Value("${datasource.replica.lag-check-interval:1000}") long checkInterval,
+            MeterRegistry meterRegistry
+    ) {
+        return new ReplicaRouting(replicaDataSource(environment, meterRegistry),
+                lagQuery.isBlank() ? ReplicaRouting.DEFAULT_LAG_QUERY : lagQuery, maxLag, checkInterval, meterRegistry);
+    }
+
+    /**
+     * Transactions take their dialect from the entity manager factory, which only asks the vendor
+     * adapter for one when none is set, so setting it before initialization is enough.
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialect(ObjectProvider<ReplicaRouting> replicaRouting) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReplicaAwareJpaDialect(replicaRouting.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static HikariDataSource replicaDataSource(Environment environment, MeterRegistry meterRegistry) {
+        String url = environment.getProperty("datasource.replica.url", "");
+        if (url.isBlank()) {
+            return null;
+        }
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(environment.getProperty("datasource.replica.username", environment.getProperty("spring.datasource.username")))
+                .password(environment.getProperty("datasource.replica.password", environment.getProperty("spring.datasource.password")))
+                .build();
+        Binder.get(environment).bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        // Not a bean, so Spring Boot does not bind pool metrics to it.
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return replica;
+    }
+}
@@ -22,6 +22,15 @@ public class EmailConfiguration {
     @Value("${spring.mail.password}")
     private String emailPassword;
 
+    @Value("${mail.smtp.connect-timeout:3000}")
+    private int connectTimeout;
+
+    @Value("${mail.smtp.read-timeout:5000}")
+    private int readTimeout;
+
+    @Value("${mail.smtp.write-timeout:5000}")
+    private int writeTimeout;
+
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -35,6 +44,10 @@ public class EmailConfiguration {
         props.put("mail.smtp.auth", "true");
         props.put("mail.smtp.starttls.enable", "true");
         props.put("mail.debug", "true");
+        // JavaMail waits forever by default; a stalled server would pin the calling thread.
+        props.put("mail.smtp.connectiontimeout", String.valueOf(connectTimeout));
+        props.put("mail.smtp.timeout", String.valueOf(readTimeout));
+        props.put("mail.smtp.writetimeout", String.valueOf(writeTimeout));
 
         return mailSender;
     }
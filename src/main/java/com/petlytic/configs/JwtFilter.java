@@ -1,5 +1,7 @@
 package com.petlytic.configs;
 
+import com.petlytic.cores.activity.ActivityRecorder;
+import com.petlytic.models.User;
 import com.petlytic.services.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,11 +26,18 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final ActivityRecorder activityRecorder;
 
-    public JwtFilter(HandlerExceptionResolver handlerExceptionResolver, JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtFilter(
+            HandlerExceptionResolver handlerExceptionResolver,
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            ActivityRecorder activityRecorder
+    ) {
         this.handlerExceptionResolver = handlerExceptionResolver;
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.activityRecorder = activityRecorder;
     }
 
     @Override
@@ -62,6 +71,9 @@ public class JwtFilter extends OncePerRequestFilter {
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    if (userDetails instanceof User user) {
+                        activityRecorder.recordSeen(user.getId());
+                    }
                 }
             }
 
@@ -0,0 +1,70 @@
+package com.petlytic.configs;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GoogleOAuthConstants;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.json.gson.GsonFactory;
+import com.petlytic.cores.resilience.DependencyGuard;
+import com.petlytic.cores.resilience.GuardSettings;
+import com.petlytic.cores.resilience.JdkHttpTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.MailException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Bulkheads and circuit breakers for the external services called on request threads.
+ */
+@Configuration
+public class ResilienceConfiguration {
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public ResilienceConfiguration(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public DependencyGuard googleGuard() {
+        // Only transport failures count; a forged or expired token says nothing about Google's health.
+        return guard("google", e -> e instanceof IOException);
+    }
+
+    @Bean
+    public DependencyGuard smtpGuard() {
+        return guard("smtp", e -> e instanceof MailException || e instanceof MessagingException);
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(
+            @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+            @Value("${google.certs-url:" + GoogleOAuthConstants.DEFAULT_PUBLIC_CERTS_ENCODED_URL + "}") String certsUrl,
+            @Value("${google.connect-timeout:2000}") long connectTimeout,
+            @Value("${google.read-timeout:3000}") long readTimeout
+    ) {
+        // One verifier for the whole application so Google's certs are cached between logins.
+        JdkHttpTransport transport = new JdkHttpTransport(Duration.ofMillis(connectTimeout), Duration.ofMillis(readTimeout));
+        GooglePublicKeysManager publicKeys = new GooglePublicKeysManager.Builder(transport, GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+        return new GoogleIdTokenVerifier.Builder(publicKeys)
+                .setAudience(List.of(clientId))
+                .build();
+    }
+
+    private DependencyGuard guard(String name, Predicate<Throwable> isFailure) {
+        GuardSettings settings = Binder.get(environment)
+                .bindOrCreate("resilience." + name, GuardSettings.class);
+        return new DependencyGuard(name, settings, isFailure, meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.petlytic.controllers;
+
+import com.petlytic.dtos.requests.CreatePetDTO;
+import com.petlytic.dtos.requests.UpdateCustomerDTO;
+import com.petlytic.dtos.responses.CustomerProfileResponse;
+import com.petlytic.models.User;
+import com.petlytic.repositories.projections.PetSummary;
+import com.petlytic.services.CustomerService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RequestMapping("/customers")
+@RestController
+@RequiredArgsConstructor
+public class CustomerController {
+    private final CustomerService customerService;
+
+    @GetMapping("/me")
+    public ResponseEntity<CustomerProfileResponse> profile(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(customerService.getProfile(user));
+    }
+
+    @PutMapping("/me")
+    public ResponseEntity<CustomerProfileResponse> updateProfile(
+            @AuthenticationPrincipal User user,
+            @RequestBody @Valid UpdateCustomerDTO updateCustomerDTO
+    ) {
+        return ResponseEntity.ok(customerService.updateProfile(user, updateCustomerDTO));
+    }
+
+    @PostMapping("/me/pets")
+    public ResponseEntity<List<PetSummary>> addPet(
+            @AuthenticationPrincipal User user,
+            @RequestBody @Valid CreatePetDTO createPetDTO
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(customerService.addPet(user, createPetDTO));
+    }
+}
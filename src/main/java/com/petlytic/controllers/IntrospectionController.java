@@ -0,0 +1,28 @@
+package com.petlytic.controllers;
+
+import com.petlytic.dtos.requests.IntrospectTokensDTO;
+import com.petlytic.dtos.responses.TokenIntrospection;
+import com.petlytic.services.TokenIntrospectionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RequestMapping("/internal/tokens")
+@RestController
+@Lazy
+@RequiredArgsConstructor
+public class IntrospectionController {
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    @PostMapping("/introspect")
+    public ResponseEntity<List<TokenIntrospection>> introspect(@RequestBody @Valid IntrospectTokensDTO introspectTokensDTO) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(introspectTokensDTO.getTokens()));
+    }
+}
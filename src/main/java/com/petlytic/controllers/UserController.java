@@ -1,34 +1,95 @@
 package com.petlytic.controllers;
 
+import com.petlytic.cores.http.EntityTags;
+import com.petlytic.dtos.responses.UserImportReport;
 import com.petlytic.models.User;
+import com.petlytic.services.UserImportService;
 import com.petlytic.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RequestMapping("/users")
 @RestController
 public class UserController {
+    // Profiles are revalidated on every poll, which costs a 304 while nothing changed.
+    private static final CacheControl PROFILE_CACHE = CacheControl.noCache().cachePrivate();
+    private static final CacheControl LISTING_CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate().mustRevalidate();
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final UserService userService;
-    public UserController(UserService userService) {
+    private final UserImportService userImportService;
+    public UserController(UserService userService, @Lazy UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     @GetMapping("/me")
     public ResponseEntity<User> authenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) authentication.getPrincipal();
-        return ResponseEntity.ok(currentUser);
+        // A matching If-None-Match gets a 304 before the user is serialized.
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(currentUser))
+                .cacheControl(PROFILE_CACHE)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(currentUser);
     }
 
     @GetMapping("/")
-    public ResponseEntity<List<User>> allUsers() {
-        List <User> users = userService.allUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<User>> allUsers(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        Window<User> page = userService.listUsers(after, pageSize);
+        List<User> users = page.getContent();
+        UUID next = page.hasNext() ? users.get(users.size() - 1).getId() : null;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(EntityTags.of(users, next))
+                .cacheControl(LISTING_CACHE)
+                .varyBy(HttpHeaders.AUTHORIZATION);
+        if (next != null) {
+            String nextPage = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", next)
+                    .replaceQueryParam("size", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+        }
+        return response.body(users);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserImportReport> importCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importCsv(request.getInputStream()));
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<UserImportReport> importNdjson(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importNdjson(request.getInputStream()));
+    }
+
+    @PostMapping(value = "/me/avatar", consumes = {"image/png", "image/jpeg", "image/gif"})
+    public ResponseEntity<Map<String, String>> uploadAvatar(@AuthenticationPrincipal User user, HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(Map.of("avatarUrl", userService.updateAvatar(user.getId(), request.getInputStream())));
     }
-}
\ No newline at end of file
+}
@@ -1,4 +1,56 @@
 package com.petlytic.cores;
 
-public class BaseRepository {
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Base for all repositories: set-based and streaming primitives on top of {@link JpaRepository},
+ * so callers do not need {@code findAll()} or load-modify-save loops. Implemented by
+ * {@link BaseRepositoryImpl}, registered as the repository base class.
+ */
+@NoRepositoryBean
+public interface BaseRepository<T, ID> extends JpaRepository<T, ID>, JpaSpecificationExecutor<T> {
+    /**
+     * Keyset pagination: the next {@code limit} rows after {@code position}, ordered by {@code sort}
+     * plus the id as tie-breaker. Start with {@code ScrollPosition.keyset()} and continue with
+     * {@code window.positionAt(window.size() - 1)}; cost does not grow with the page number.
+     */
+    Window<T> scroll(Specification<T> spec, Sort sort, int limit, ScrollPosition position);
+
+    /**
+     * Selects only the columns of a record or interface projection. Record components and
+     * interface getters must be named after entity attributes.
+     */
+    <P> List<P> findAllProjected(Specification<T> spec, Class<P> projection);
+
+    /**
+     * Streams matching entities through a server-side cursor. Must be called inside a
+     * read-only transaction and closed by the caller; entities are not kept in the
+     * persistence context.
+     */
+    Stream<T> streamAll(Specification<T> spec, int fetchSize);
+
+    /**
+     * Inserts or updates each entity by id: one query finds the existing ids, then inserts and
+     * updates go out in JDBC batches, bypassing the persistence context and entity listeners.
+     * Ids must be assigned; the {@code @UpdateTimestamp} attribute is set here, and cached state
+     * for the entity type is evicted on every node.
+     */
+    void upsertAll(Collection<T> entities);
+
+    /**
+     * {@code update ... set ... where ...} in one statement; returns the number of rows changed.
+     * Also moves the {@code @UpdateTimestamp} attribute, and evicts the entity type on every node.
+     */
+    int updateAll(Specification<T> spec, Map<String, ?> values);
 }
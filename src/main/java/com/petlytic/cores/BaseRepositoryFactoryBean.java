@@ -0,0 +1,40 @@
+package com.petlytic.cores;
+
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+/**
+ * Builds every repository on {@link BaseRepositoryImpl} with the beans its bulk writes need,
+ * which the reflective constructor call of the default factory cannot pass.
+ */
+public class BaseRepositoryFactoryBean<R extends Repository<T, ID>, T, ID> extends JpaRepositoryFactoryBean<R, T, ID> {
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    public BaseRepositoryFactoryBean(Class<? extends R> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Autowired
+    public void setCacheInvalidationBus(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager) {
+            @Override
+            protected JpaRepositoryImplementation<?, ?> getTargetRepository(RepositoryInformation information, EntityManager entityManager) {
+                JpaEntityInformation<?, Object> entityInformation = getEntityInformation(information.getDomainType());
+                return new BaseRepositoryImpl<>(entityInformation, entityManager, cacheInvalidationBus);
+            }
+        };
+    }
+}
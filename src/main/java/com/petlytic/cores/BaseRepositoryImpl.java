@@ -0,0 +1,228 @@
+package com.petlytic.cores;
+
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationTopic;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class BaseRepositoryImpl<T, ID> extends SimpleJpaRepository<T, ID> implements BaseRepository<T, ID> {
+    private static final int UPSERT_BATCH_SIZE = 50;
+    private static final SpelAwareProxyProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+    private final Class<T> domainClass;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Field updateTimestamp;
+
+    public BaseRepositoryImpl(
+            JpaEntityInformation<T, ?> entityInformation,
+            EntityManager entityManager,
+            CacheInvalidationBus cacheInvalidationBus
+    ) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+        this.domainClass = entityInformation.getJavaType();
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.updateTimestamp = findUpdateTimestamp(domainClass);
+    }
+
+    @Override
+    public Window<T> scroll(Specification<T> spec, Sort sort, int limit, ScrollPosition position) {
+        return findBy(where(spec), query -> query.sortBy(sort).limit(limit).scroll(position));
+    }
+
+    @Override
+    public <P> List<P> findAllProjected(Specification<T> spec, Class<P> projection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        if (projection.isRecord()) {
+            CriteriaQuery<P> query = cb.createQuery(projection);
+            Root<T> root = query.from(domainClass);
+            RecordComponent[] components = projection.getRecordComponents();
+            Selection<?>[] selections = new Selection<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                selections[i] = root.get(components[i].getName());
+            }
+            query.select(cb.construct(projection, selections)).where(where(spec).toPredicate(root, query, cb));
+            return entityManager.createQuery(query).getResultList();
+        }
+
+        ProjectionInformation information = PROJECTION_FACTORY.getProjectionInformation(projection);
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(domainClass);
+        List<Selection<?>> selections = information.getInputProperties().stream()
+                .map(PropertyDescriptor::getName)
+                .<Selection<?>>map(name -> root.get(name).alias(name))
+                .toList();
+        query.multiselect(selections)
+                .where(where(spec).toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query).getResultStream()
+                .map(tuple -> {
+                    Map<String, Object> values = new HashMap<>();
+                    for (TupleElement<?> element : tuple.getElements()) {
+                        values.put(element.getAlias(), tuple.get(element));
+                    }
+                    return PROJECTION_FACTORY.createProjection(projection, values);
+                })
+                .toList();
+    }
+
+    @Override
+    public Stream<T> streamAll(Specification<T> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        query.where(where(spec).toPredicate(root, query, cb));
+
+        Session session = entityManager.unwrap(Session.class);
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream()
+                .peek(session::detach);
+    }
+
+    @Override
+    @Transactional
+    public void upsertAll(Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        Set<Object> existing = findExistingIds(entities);
+        // The stateless session skips @UpdateTimestamp, and ETags derive from it.
+        Object now = updateTimestamp == null ? null : now(updateTimestamp.getType());
+        if (updateTimestamp != null) {
+            for (T entity : entities) {
+                setUpdateTimestamp(entity, now);
+            }
+        }
+
+        // Share the transaction's connection so the writes commit or roll back with it.
+        session.doWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory()
+                    .withStatelessOptions()
+                    .connection(connection)
+                    .openStatelessSession()) {
+                stateless.setJdbcBatchSize(UPSERT_BATCH_SIZE);
+                for (T entity : entities) {
+                    if (existing.contains(entityInformation.getId(entity))) {
+                        stateless.update(entity);
+                    } else {
+                        stateless.insert(entity);
+                    }
+                }
+            }
+        });
+
+        org.hibernate.Cache cache = session.getSessionFactory().getCache();
+        cache.evictEntityData(domainClass);
+        cache.evictNaturalIdData(domainClass);
+        cache.evictQueryRegions();
+        cacheInvalidationBus.publish(InvalidationTopic.ENTITY, domainClass.getName());
+    }
+
+    @Override
+    @Transactional
+    public int updateAll(Specification<T> spec, Map<String, ?> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(domainClass);
+        Root<T> root = update.from(domainClass);
+        values.forEach(update::set);
+        if (updateTimestamp != null && !values.containsKey(updateTimestamp.getName())) {
+            update.set(updateTimestamp.getName(), now(updateTimestamp.getType()));
+        }
+        update.where(where(spec).toPredicate(root, cb.createQuery(), cb));
+        int updated = entityManager.createQuery(update).executeUpdate();
+        // Hibernate evicts this node's regions for bulk updates; the other nodes only learn from us.
+        if (updated > 0) {
+            cacheInvalidationBus.publish(InvalidationTopic.ENTITY, domainClass.getName());
+        }
+        return updated;
+    }
+
+    private Set<Object> findExistingIds(Collection<T> entities) {
+        List<Object> ids = entities.stream().<Object>map(entityInformation::getId).toList();
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("upsertAll requires assigned ids");
+        }
+
+        String idAttribute = entityInformation.getIdAttribute().getName();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = cb.createQuery(Object.class);
+        Root<T> root = query.from(domainClass);
+        query.select(root.get(idAttribute)).where(root.get(idAttribute).in(ids));
+        return new HashSet<>(entityManager.createQuery(query).getResultList());
+    }
+
+    private void setUpdateTimestamp(T entity, Object now) {
+        try {
+            updateTimestamp.set(entity, now);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field findUpdateTimestamp(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(UpdateTimestamp.class)) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object now(Class<?> type) {
+        if (type == Instant.class) {
+            return Instant.now();
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        throw new IllegalStateException("Unsupported @UpdateTimestamp type: " + type.getName());
+    }
+
+    private static <T> Specification<T> where(Specification<T> spec) {
+        return spec == null ? (root, query, cb) -> cb.conjunction() : spec;
+    }
+}
@@ -0,0 +1,25 @@
+package com.petlytic.cores.activity;
+
+import java.util.UUID;
+
+/**
+ * Where request paths report user activity; {@link ActivityTracker} in the application.
+ */
+public interface ActivityRecorder {
+    /**
+     * Drops everything, for synthetic traffic that must not reach the database.
+     */
+    ActivityRecorder NONE = new ActivityRecorder() {
+        @Override
+        public void recordSeen(UUID userId) {
+        }
+
+        @Override
+        public void recordLogin(UUID userId) {
+        }
+    };
+
+    void recordSeen(UUID userId);
+
+    void recordLogin(UUID userId);
+}
@@ -0,0 +1,146 @@
+package com.petlytic.cores.activity;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind tracking of {@code users.last_seen_at} and {@code last_login_at}. Hits only merge
+ * into an in-memory map keyed by user id, so any number of requests by one user between flushes
+ * cost one row in one batched {@code UPDATE ... FROM (VALUES ...)}. Activity not yet flushed is
+ * lost if the process dies; a clean shutdown flushes it. Cached users are left alone: the
+ * columns are neither written back nor serialized, so a stale copy is harmless.
+ */
+@Slf4j
+@Component
+// The columns must exist before the shutdown flush.
+@DependsOn("entityManagerFactory")
+public class ActivityTracker implements ActivityRecorder {
+    private static final String UPDATE_SQL = """
+            update users u
+            set last_seen_at = greatest(u.last_seen_at, v.seen_at),
+                last_login_at = greatest(u.last_login_at, v.login_at)
+            from (values %s) as v(id, seen_at, login_at)
+            where u.id = v.id
+            """;
+    private static final String ROW = "(?::uuid, ?::timestamp, ?::timestamp)";
+    // The order Postgres sorts uuids in, so every writer locks the rows in the same order.
+    private static final Comparator<Map.Entry<UUID, Activity>> BY_ID = Comparator.comparing(entry -> entry.getKey().toString());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, Activity> pending = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+
+    @Value("${activity.batch-size:1000}")
+    private int batchSize;
+
+    public ActivityTracker(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushTimer = Timer.builder("activity.flush")
+                .description("Time to write one round of pending activity")
+                .register(meterRegistry);
+        Gauge.builder("activity.pending", pending, Map::size)
+                .description("Users with activity waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    private record Activity(LocalDateTime seenAt, LocalDateTime loginAt) {
+        Activity merge(Activity other) {
+            return new Activity(later(seenAt, other.seenAt), later(loginAt, other.loginAt));
+        }
+
+        private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+            return a == null || (b != null && b.isAfter(a)) ? b : a;
+        }
+    }
+
+    @Override
+    public void recordSeen(UUID userId) {
+        pending.merge(userId, new Activity(LocalDateTime.now(), null), Activity::merge);
+    }
+
+    @Override
+    public void recordLogin(UUID userId) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.merge(userId, new Activity(now, now), Activity::merge);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${activity.flush-interval:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushTimer.record(this::drain);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void drain() {
+        List<Map.Entry<UUID, Activity>> batch = new ArrayList<>(batchSize);
+        Iterator<UUID> keys = pending.keySet().iterator();
+        while (keys.hasNext()) {
+            UUID id = keys.next();
+            // Hits that land after the removal start a new entry for the next flush.
+            Activity activity = pending.remove(id);
+            if (activity == null) {
+                continue;
+            }
+            batch.add(Map.entry(id, activity));
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Map.Entry<UUID, Activity>> batch) {
+        // Two flushes updating overlapping users in different orders could deadlock.
+        batch.sort(BY_ID);
+        List<Object> args = new ArrayList<>(batch.size() * 3);
+        for (Map.Entry<UUID, Activity> entry : batch) {
+            args.add(entry.getKey());
+            args.add(timestamp(entry.getValue().seenAt()));
+            args.add(timestamp(entry.getValue().loginAt()));
+        }
+        try {
+            jdbcTemplate.update(UPDATE_SQL.formatted(String.join(", ", Collections.nCopies(batch.size(), ROW))), args.toArray());
+        } catch (DataAccessException e) {
+            // Put the batch back for the next flush; hits merged in meanwhile keep the later times.
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), Activity::merge));
+            log.warn("Could not flush activity of {} users, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+}
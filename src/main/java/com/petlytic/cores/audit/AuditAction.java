@@ -0,0 +1,11 @@
+package com.petlytic.cores.audit;
+
+public enum AuditAction {
+    LOGIN,
+    LOGIN_FAILED,
+    GOOGLE_LOGIN,
+    TOKEN_REFRESH,
+    REFRESH_TOKEN_REUSE,
+    VERIFY,
+    TOKENS_REVOKED,
+}
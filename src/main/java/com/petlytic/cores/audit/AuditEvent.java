@@ -0,0 +1,7 @@
+package com.petlytic.cores.audit;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record AuditEvent(AuditAction action, UUID userId, String detail, LocalDateTime occurredAt) {
+}
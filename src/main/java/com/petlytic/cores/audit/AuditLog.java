@@ -0,0 +1,237 @@
+package com.petlytic.cores.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of authentication events. {@link #record} only enqueues into a lock-free
+ * ring buffer; a background writer drains it into {@code audit_log} with {@code COPY},
+ * so the request path never waits on the database.
+ */
+@Slf4j
+@Component
+// The schema (audit_log) must exist before spilled events are loaded and before shutdown flushes.
+@DependsOn("entityManagerFactory")
+public class AuditLog {
+    private static final String COPY_SQL =
+            "copy audit_log (action, user_id, detail, occurred_at) from stdin with (format csv)";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int MAX_DETAIL_LENGTH = 255;
+
+    private final DataSource dataSource;
+    private final RingBuffer<AuditEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final Object spillLock = new Object();
+
+    private Thread writer;
+    private volatile boolean running;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval:200}")
+    private long flushIntervalMillis;
+
+    @Value("${audit.spill-file:audit-spill.csv}")
+    private Path spillFile;
+
+    public AuditLog(
+            DataSource dataSource,
+            @Value("${audit.capacity:65536}") int capacity,
+            @Value("${audit.overflow-policy:drop}") String overflowPolicy
+    ) {
+        this.dataSource = dataSource;
+        this.buffer = new RingBuffer<>(capacity);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase());
+    }
+
+    public void record(AuditAction action, UUID userId, String detail) {
+        if (!enabled) {
+            return;
+        }
+        if (detail != null && detail.length() > MAX_DETAIL_LENGTH) {
+            detail = detail.substring(0, MAX_DETAIL_LENGTH);
+        }
+        AuditEvent event = new AuditEvent(action, userId, detail, LocalDateTime.now());
+        if (buffer.offer(event)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                LockSupport.unpark(writer);
+                while (!buffer.offer(event)) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            case DROP -> dropped.incrementAndGet();
+            case SPILL -> spill(List.of(event));
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSpilled() {
+        return spilled.get();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        loadSpillFile();
+
+        running = true;
+        writer = new Thread(this::drainLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+
+    /**
+     * Writes everything currently buffered; used on shutdown and by tests.
+     */
+    void flush() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long reportedDrops = 0;
+        while (running) {
+            buffer.drainTo(batch, batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                log.warn("Audit buffer full, {} events dropped so far", drops);
+                reportedDrops = drops;
+            }
+
+            // A full batch means more is probably waiting; otherwise let events accumulate.
+            if (batch.size() < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            copy(new StringReader(toCsv(batch)));
+        } catch (SQLException | IOException e) {
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                log.warn("Could not write {} audit events, spilling to {}: {}", batch.size(), spillFile, e.getMessage());
+                spill(batch);
+            } else {
+                log.error("Could not write {} audit events: {}", batch.size(), e.getMessage());
+                dropped.addAndGet(batch.size());
+            }
+        }
+    }
+
+    private void copy(Reader csv) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, csv);
+        }
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try (Writer out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(toCsv(events));
+                spilled.addAndGet(events.size());
+            } catch (IOException e) {
+                log.error("Could not spill {} audit events to {}: {}", events.size(), spillFile, e.getMessage());
+                dropped.addAndGet(events.size());
+            }
+        }
+    }
+
+    private void loadSpillFile() {
+        // Move the file aside first so events spilled while loading are not lost or loaded twice.
+        // A leftover .loading file is from an earlier start whose load failed; retry it first.
+        Path loading = spillFile.resolveSibling(spillFile.getFileName() + ".loading");
+        try {
+            if (!Files.exists(loading)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                Files.move(spillFile, loading);
+            }
+            try (Reader csv = Files.newBufferedReader(loading, StandardCharsets.UTF_8)) {
+                copy(csv);
+            }
+            Files.delete(loading);
+            log.info("Loaded spilled audit events from {}", loading);
+        } catch (SQLException | IOException e) {
+            log.error("Could not load spilled audit events from {}: {}", loading, e.getMessage());
+        }
+    }
+
+    private static String toCsv(List<AuditEvent> events) {
+        StringBuilder csv = new StringBuilder(events.size() * 96);
+        for (AuditEvent event : events) {
+            csv.append(event.action().name()).append(',');
+            if (event.userId() != null) {
+                csv.append(event.userId());
+            }
+            csv.append(',');
+            if (event.detail() != null) {
+                // Quoted empty string is '', unquoted empty field is NULL.
+                csv.append('"').append(event.detail().replace("\"", "\"\"")).append('"');
+            }
+            csv.append(',').append(event.occurredAt()).append('\n');
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.petlytic.cores.audit;
+
+/**
+ * What {@link AuditLog#record} does when the buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait for the writer to make room; the caller's request slows down.
+     */
+    BLOCK,
+    /**
+     * Discard the event and count it.
+     */
+    DROP,
+    /**
+     * Append the event to the local spill file, loaded into Postgres on the next start.
+     */
+    SPILL,
+}
@@ -0,0 +1,320 @@
+package com.petlytic.cores.denylist;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Node-local denylist of revoked access tokens, keyed by their {@code jti}. The entries live in a
+ * memory-mapped open-addressing table, so they survive restarts without a database round trip on
+ * every request. An entry is only needed until the token it denies expires: the header keeps the
+ * earliest {@code exp} in the table, and once that has passed {@link #compact} rewrites the file
+ * without the expired entries. Revocations made on other nodes arrive as
+ * {@code ACCESS_TOKEN} invalidation events and are added here as well.
+ * <p>
+ * {@link #isDenied} is the filter hot path. It hashes the {@code jti} in place and probes the
+ * mapping under an optimistic read, so it neither allocates nor blocks; writers (logout, reuse
+ * detection) are rare and serialize on the write lock.
+ * <p>
+ * File layout: a 32-byte header (magic, version, capacity, size, earliest expiry) followed by
+ * {@code capacity} slots of 16 bytes (64-bit jti digest, expiry in epoch millis). Digest 0 marks
+ * an empty slot.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+    private static final int MAGIC = 0x504a444c;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int EARLIEST_EXPIRY_OFFSET = 16;
+    private static final long EMPTY = 0;
+
+    private final Path file;
+    private final int minCapacity;
+    private final StampedLock lock = new StampedLock();
+
+    // Replaced as a whole on compaction, so an optimistic reader never pairs a buffer with another mask.
+    private Table table;
+    private int size;
+    private long earliestExpiry;
+
+    public TokenDenylist(
+            @Value("${security.jwt.denylist.path:data/jti-denylist.bin}") Path file,
+            @Value("${security.jwt.denylist.initial-capacity:65536}") int initialCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        this.file = file;
+        int capacity = 16;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.minCapacity = capacity;
+        open();
+        Gauge.builder("security.jwt.denylist.size", this, TokenDenylist::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the token with this {@code jti} was revoked. A missing {@code jti} is never listed;
+     * callers must refuse such tokens themselves, as they cannot be revoked.
+     */
+    public boolean isDenied(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        long digest = digest(jti);
+        long stamp = lock.tryOptimisticRead();
+        boolean denied = table.contains(digest);
+        if (lock.validate(stamp)) {
+            return denied;
+        }
+        stamp = lock.readLock();
+        try {
+            return table.contains(digest);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Denies the token until {@code expiresAt} (epoch millis, the token's own {@code exp}). The
+     * entry is on disk when this returns.
+     */
+    public void deny(String jti, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAt <= now) {
+            return;
+        }
+        long digest = digest(jti);
+        long stamp = lock.writeLock();
+        try {
+            // Keep at least a quarter of the slots empty so probes stay short and always terminate.
+            if ((size + 1) * 4L > table.capacity() * 3L) {
+                rebuild(now, 1);
+            }
+            int slot = table.slotOf(digest);
+            if (table.digestAt(slot) == EMPTY) {
+                size++;
+            } else if (table.expiryAt(slot) >= expiresAt) {
+                return;
+            }
+            table.put(slot, digest, expiresAt);
+            earliestExpiry = size == 1 ? expiresAt : Math.min(earliestExpiry, expiresAt);
+            writeHeader(table);
+            table.force(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.denylist.compact-interval:60000}")
+    public void compact() {
+        compact(System.currentTimeMillis());
+    }
+
+    /**
+     * Drops the entries that expired before {@code now}. Does nothing until the earliest one has.
+     */
+    void compact(long now) {
+        long stamp = lock.writeLock();
+        try {
+            if (size > 0 && earliestExpiry <= now) {
+                int before = size;
+                rebuild(now, 0);
+                log.debug("Compacted the token denylist: {} of {} entries expired", before - size, before);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            if (Files.exists(file)) {
+                Table existing = map(file, -1);
+                if (existing != null) {
+                    table = existing;
+                    size = existing.buffer.getInt(SIZE_OFFSET);
+                    earliestExpiry = existing.buffer.getLong(EARLIEST_EXPIRY_OFFSET);
+                    log.info("Loaded {} denied tokens from {}", size, file);
+                    compact();
+                    return;
+                }
+                log.warn("Ignoring unreadable token denylist {}", file);
+            }
+            table = map(file, minCapacity);
+            writeHeader(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the token denylist " + file, e);
+        }
+    }
+
+    /**
+     * Copies the live entries into a fresh file, sized so that they plus {@code reserve} more fill
+     * at most half of it, and swaps it in with an atomic rename: a crash leaves either table intact.
+     */
+    private void rebuild(long now, int reserve) {
+        int live = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (table.digestAt(slot) != EMPTY && table.expiryAt(slot) > now) {
+                live++;
+            }
+        }
+        int capacity = minCapacity;
+        while ((long) (live + reserve) * 2 > capacity) {
+            capacity <<= 1;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(temp);
+            Table rebuilt = map(temp, capacity);
+            long earliest = Long.MAX_VALUE;
+            for (int slot = 0; slot < table.capacity(); slot++) {
+                long digest = table.digestAt(slot);
+                long expiresAt = table.expiryAt(slot);
+                if (digest != EMPTY && expiresAt > now) {
+                    rebuilt.put(rebuilt.slotOf(digest), digest, expiresAt);
+                    earliest = Math.min(earliest, expiresAt);
+                }
+            }
+            size = live;
+            earliestExpiry = live == 0 ? 0 : earliest;
+            writeHeader(rebuilt);
+            rebuilt.buffer.force();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            table = rebuilt;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rewrite the token denylist " + file, e);
+        }
+    }
+
+    private void writeHeader(Table target) {
+        target.buffer.putInt(0, MAGIC);
+        target.buffer.putInt(4, VERSION);
+        target.buffer.putInt(CAPACITY_OFFSET, target.capacity());
+        target.buffer.putInt(SIZE_OFFSET, size);
+        target.buffer.putLong(EARLIEST_EXPIRY_OFFSET, earliestExpiry);
+        target.buffer.force(0, HEADER_BYTES);
+    }
+
+    /**
+     * Maps {@code path}; with {@code capacity} -1 the file must already hold a valid table,
+     * otherwise {@code null} is returned.
+     */
+    private static Table map(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (capacity < 0) {
+                if (channel.size() < HEADER_BYTES) {
+                    return null;
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                capacity = header.getInt(CAPACITY_OFFSET);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || Integer.bitCount(capacity) != 1
+                        || channel.size() != HEADER_BYTES + (long) capacity * SLOT_BYTES) {
+                    return null;
+                }
+            }
+            // The mapping stays valid after the channel is closed.
+            return new Table(channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES),
+                    capacity - 1);
+        }
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 mixer so that the low bits used
+     * for the slot index depend on the whole id. {@code jti}s are random server-issued UUIDs,
+     * so 64 bits keep accidental collisions negligible.
+     */
+    static long digest(CharSequence jti) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < jti.length(); i++) {
+            hash ^= jti.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53b0d79L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private record Table(MappedByteBuffer buffer, int mask) {
+        int capacity() {
+            return mask + 1;
+        }
+
+        long digestAt(int slot) {
+            return buffer.getLong(HEADER_BYTES + slot * SLOT_BYTES);
+        }
+
+        long expiryAt(int slot) {
+            return buffer.getLong(HEADER_BYTES + slot * SLOT_BYTES + 8);
+        }
+
+        /**
+         * The slot holding {@code digest}, or the empty slot where it would go (linear probing).
+         */
+        int slotOf(long digest) {
+            int slot = (int) digest & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = digestAt(slot);
+                if (current == digest || current == EMPTY) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            throw new IllegalStateException("Token denylist is full");
+        }
+
+        boolean contains(long digest) {
+            int slot = (int) digest & mask;
+            // Bounded as well: a reader racing a writer may see a table in flux and retries anyway.
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = digestAt(slot);
+                if (current == digest) {
+                    return true;
+                }
+                if (current == EMPTY) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        void put(int slot, long digest, long expiresAt) {
+            // Expiry first: a concurrent reader that sees the digest sees a complete entry.
+            buffer.putLong(HEADER_BYTES + slot * SLOT_BYTES + 8, expiresAt);
+            buffer.putLong(HEADER_BYTES + slot * SLOT_BYTES, digest);
+        }
+
+        void force(int slot) {
+            buffer.force(HEADER_BYTES + slot * SLOT_BYTES, SLOT_BYTES);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.petlytic.cores.http;
+
+import com.petlytic.models.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Strong ETags for user representations, derived from what the response is built from instead
+ * of the serialized body, so a match can be answered before anything is serialized. Every write
+ * to a user row moves {@code updated_at}, including the native updates behind verification and
+ * Google sign-in.
+ */
+public final class EntityTags {
+    // Bump when the JSON shape of a user changes, so clients do not keep an old representation.
+    private static final String REPRESENTATION_VERSION = "1";
+    private static final LocalDateTime NEVER = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private EntityTags() {
+    }
+
+    public static String of(User user) {
+        return "\"u" + REPRESENTATION_VERSION + "-" + user.getId() + "-" + version(user) + "\"";
+    }
+
+    /**
+     * Tag of one page of users; {@code next} is part of the page since it ends up in the Link header.
+     */
+    public static String of(Collection<User> users, Object next) {
+        MessageDigest digest = sha256();
+        update(digest, REPRESENTATION_VERSION);
+        for (User user : users) {
+            update(digest, user.getId() + ":" + version(user));
+        }
+        update(digest, String.valueOf(next));
+        return "\"p" + REPRESENTATION_VERSION + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static long version(User user) {
+        LocalDateTime updatedAt = user.getUpdatedAt() == null ? NEVER : user.getUpdatedAt();
+        return ChronoUnit.MICROS.between(NEVER, updatedAt);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
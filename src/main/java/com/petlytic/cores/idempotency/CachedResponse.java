@@ -0,0 +1,12 @@
+package com.petlytic.cores.idempotency;
+
+import java.util.List;
+import java.util.Map;
+
+public record CachedResponse(
+        String fingerprint,
+        int status,
+        Map<String, List<String>> headers,
+        byte[] body
+) {
+}
@@ -0,0 +1,88 @@
+package com.petlytic.cores.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, time-limited store of responses keyed by {@code Idempotency-Key}.
+ * The first caller for a key becomes the owner and runs the request; concurrent
+ * callers receive the owner's future and wait on it instead of running again.
+ */
+@Component
+public class IdempotencyStore {
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, false);
+
+    @Value("${idempotency.ttl:300000}")
+    private long ttlMillis;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    /**
+     * Returns {@code null} when the caller now owns the key and must call
+     * {@link #complete} or {@link #abandon}; otherwise the future of the owner.
+     */
+    public synchronized CompletableFuture<CachedResponse> claim(String key) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing.future;
+        }
+
+        while (entries.size() >= maxEntries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            Entry eldest = it.next().getValue();
+            it.remove();
+            eldest.future.complete(null);
+        }
+        entries.put(key, new Entry(new CompletableFuture<>(), now + ttlMillis));
+        return null;
+    }
+
+    public void complete(String key, CachedResponse response) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            entry.future.complete(response);
+        }
+    }
+
+    /**
+     * Drops the key so that the next retry runs the request again. Waiters are
+     * released with {@code null} and are told to retry rather than run it themselves.
+     */
+    public void abandon(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.remove(key);
+        }
+        if (entry != null) {
+            entry.future.complete(null);
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.expiresAt > now) {
+                return;
+            }
+            if (entry.future.isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private record Entry(CompletableFuture<CachedResponse> future, long expiresAt) {
+    }
+}
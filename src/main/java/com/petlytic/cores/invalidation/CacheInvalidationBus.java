@@ -0,0 +1,262 @@
+package com.petlytic.cores.invalidation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagates key-level cache invalidations to the other nodes through Postgres
+ * {@code NOTIFY}, with one dedicated {@code LISTEN} connection per node.
+ * <p>
+ * Events are published after commit and coalesced into one notification per flush.
+ * Payload format: {@code <nodeId>|<TOPIC>:<key>,<TOPIC>:<key>...}; keys must not
+ * contain {@code ','} or {@code '|'}.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+    // Postgres caps payloads at 8000 bytes; topics, node ids and keys are ASCII.
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<InvalidationTopic, List<InvalidationHandler>> handlers = new EnumMap<>(InvalidationTopic.class);
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService flusher;
+    private Thread listener;
+    private volatile boolean running;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.channel:petlytic_cache_invalidation}")
+    private String channel;
+
+    @Value("${cache.invalidation.flush-interval:50}")
+    private long flushIntervalMillis;
+
+    @Value("${cache.invalidation.poll-timeout:5000}")
+    private int pollTimeoutMillis;
+
+    @Value("${cache.invalidation.reconnect-delay:1000}")
+    private long reconnectDelayMillis;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (InvalidationTopic topic : InvalidationTopic.values()) {
+            handlers.put(topic, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    public void subscribe(InvalidationTopic topic, InvalidationHandler handler) {
+        handlers.get(topic).add(handler);
+    }
+
+    /**
+     * Tells the other nodes to drop {@code key}. Local caches are the caller's concern.
+     */
+    public void publish(InvalidationTopic topic, Object key) {
+        if (!enabled) {
+            return;
+        }
+        String event = topic.name() + ":" + key;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(event);
+                }
+            });
+        } else {
+            pending.add(event);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+        listener.interrupt();
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<String> events = new LinkedHashSet<>();
+        for (String event; (event = pending.poll()) != null; ) {
+            events.add(event);
+        }
+
+        try {
+            for (String payload : toPayloads(events)) {
+                jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class, channel, payload);
+            }
+        } catch (RuntimeException e) {
+            // Retry the whole set; peers may see part of it twice, which invalidation tolerates.
+            pending.addAll(events);
+            log.warn("Could not publish {} cache invalidation events, will retry: {}", events.size(), e.getMessage());
+        }
+    }
+
+    private List<String> toPayloads(Set<String> events) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int header = payload.length();
+
+        for (String event : events) {
+            int size = payload.length() + event.length() + 1;
+            if (payload.length() > header && size > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(header);
+            }
+            if (payload.length() > header) {
+                payload.append(',');
+            }
+            payload.append(event);
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    log.info("Cache invalidation listener reconnected, resynchronizing caches");
+                    handlers.values().forEach(list -> list.forEach(InvalidationHandler::invalidateAll));
+                }
+                connectedBefore = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications == null || notifications.length == 0) {
+                        // An idle socket may be dead without us noticing; probe it.
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                    completeBatch();
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void completeBatch() {
+        for (List<InvalidationHandler> list : handlers.values()) {
+            for (InvalidationHandler handler : list) {
+                try {
+                    handler.afterBatch();
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation handler failed to complete a batch: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    void dispatch(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+
+        for (String event : payload.substring(separator + 1).split(",")) {
+            int colon = event.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            InvalidationTopic topic;
+            try {
+                topic = InvalidationTopic.valueOf(event.substring(0, colon));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            String key = event.substring(colon + 1);
+            for (InvalidationHandler handler : handlers.get(topic)) {
+                try {
+                    handler.invalidate(key);
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation handler failed for {}: {}", event, e.getMessage());
+                }
+            }
+        }
+    }
+}
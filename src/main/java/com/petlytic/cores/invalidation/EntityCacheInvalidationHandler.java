@@ -0,0 +1,35 @@
+package com.petlytic.cores.invalidation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EntityCacheInvalidationHandler implements InvalidationHandler {
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Cache cache;
+
+    public EntityCacheInvalidationHandler(CacheInvalidationBus cacheInvalidationBus, EntityManagerFactory entityManagerFactory) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        cacheInvalidationBus.subscribe(InvalidationTopic.ENTITY, this);
+    }
+
+    @Override
+    public void invalidate(String entityName) {
+        cache.evictEntityData(entityName);
+        cache.evictNaturalIdData(entityName);
+        cache.evictQueryRegions();
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.evictAllRegions();
+    }
+}
@@ -0,0 +1,17 @@
+package com.petlytic.cores.invalidation;
+
+public interface InvalidationHandler {
+    void invalidate(String key);
+
+    /**
+     * Called after the listener reconnects, since events may have been missed while it was down.
+     */
+    void invalidateAll();
+
+    /**
+     * Called once per batch of received notifications, after their keys went to {@link #invalidate},
+     * for work that would be wasted if repeated per key.
+     */
+    default void afterBatch() {
+    }
+}
@@ -0,0 +1,15 @@
+package com.petlytic.cores.invalidation;
+
+public enum InvalidationTopic {
+    USER,
+    /**
+     * Every cached row of one entity type, keyed by its class name; published by bulk writes
+     * that cannot tell which rows they changed.
+     */
+    ENTITY,
+    /**
+     * A revoked access token, keyed {@code <jti>@<exp in epoch millis>}; every node adds it to its
+     * own denylist.
+     */
+    ACCESS_TOKEN,
+}
@@ -1,4 +1,38 @@
 package com.petlytic.cores.models;
 
+import com.petlytic.cores.audit.AuditAction;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row of the audit trail. Rows are written in batches by {@link com.petlytic.cores.audit.AuditLog}
+ * through {@code COPY}, never through the entity manager; the mapping keeps the schema managed
+ * with the rest of the model and allows reading the trail with JPA.
+ */
+@Entity
+@Table(name = "audit_log", indexes = @Index(name = "idx_audit_log_user_id", columnList = "user_id, occurred_at"))
+@Getter
+@Setter
+@NoArgsConstructor
 public class AuditTable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditAction action;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    private String detail;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
 }
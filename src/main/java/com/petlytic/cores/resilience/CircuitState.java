@@ -0,0 +1,7 @@
+package com.petlytic.cores.resilience;
+
+public enum CircuitState {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+}
@@ -0,0 +1,193 @@
+package com.petlytic.cores.resilience;
+
+import com.petlytic.exceptions.DependencyUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Bulkhead plus circuit breaker for one external dependency. The bulkhead caps concurrent
+ * calls so a slow dependency can hold at most {@code maxConcurrent} request threads; the
+ * breaker tracks the failure rate over the last {@code windowSize} calls and, once it trips,
+ * rejects calls without trying until {@code openDuration} has passed and trial calls succeed.
+ * Only exceptions matching {@code isFailure} count against the dependency.
+ */
+@Slf4j
+public class DependencyGuard {
+    private final String name;
+    private final GuardSettings settings;
+    private final Predicate<Throwable> isFailure;
+    private final Semaphore bulkhead;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter bulkheadRejections;
+    private final Counter openRejections;
+
+    // Breaker state; guarded by this.
+    private final boolean[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    public DependencyGuard(String name, GuardSettings settings, Predicate<Throwable> isFailure, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.isFailure = isFailure;
+        this.bulkhead = new Semaphore(settings.maxConcurrent());
+        this.window = new boolean[settings.windowSize()];
+        this.meterRegistry = meterRegistry;
+
+        this.successes = callCounter("success");
+        this.failures = callCounter("failure");
+        this.bulkheadRejections = callCounter("rejected_bulkhead");
+        this.openRejections = callCounter("rejected_open");
+        Gauge.builder("resilience.circuit.state", this, guard -> guard.state.ordinal())
+                .description("0 = closed, 1 = half open, 2 = open")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("resilience.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("dependency", name)
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitState getState() {
+        return state;
+    }
+
+    public <T, E extends Exception> T execute(GuardedCall<T, E> call) throws E {
+        try {
+            if (!bulkhead.tryAcquire(settings.maxWait(), TimeUnit.MILLISECONDS)) {
+                bulkheadRejections.increment();
+                throw new DependencyUnavailableException(name, "too many concurrent calls", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name, "interrupted", 1);
+        }
+
+        try {
+            acquirePermission();
+            try {
+                T result = call.call();
+                onSuccess();
+                return result;
+            } catch (Throwable e) {
+                // Errors too: a half-open trial that is never settled would keep its permit forever.
+                if (isFailure.test(e)) {
+                    onFailure();
+                } else {
+                    onSuccess();
+                }
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == CircuitState.OPEN) {
+            long remaining = openedAt + settings.openDuration() - System.currentTimeMillis();
+            if (remaining > 0) {
+                openRejections.increment();
+                throw new DependencyUnavailableException(name, "circuit open", TimeUnit.MILLISECONDS.toSeconds(remaining) + 1);
+            }
+            transition(CircuitState.HALF_OPEN);
+            trialPermits = settings.halfOpenCalls();
+            trialSuccesses = 0;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (trialPermits == 0) {
+                openRejections.increment();
+                throw new DependencyUnavailableException(name, "circuit half open", 1);
+            }
+            trialPermits--;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        successes.increment();
+        if (state == CircuitState.HALF_OPEN) {
+            if (++trialSuccesses >= settings.halfOpenCalls()) {
+                resetWindow();
+                transition(CircuitState.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private synchronized void onFailure() {
+        failures.increment();
+        if (state == CircuitState.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == CircuitState.CLOSED && windowCount >= settings.minimumCalls()
+                && windowFailures * 100 >= settings.failureRateThreshold() * windowCount) {
+            open();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void resetWindow() {
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        resetWindow();
+        transition(CircuitState.OPEN);
+    }
+
+    private void transition(CircuitState next) {
+        CircuitState previous = state;
+        state = next;
+        meterRegistry.counter("resilience.circuit.transitions",
+                "dependency", name, "from", previous.name(), "to", next.name()).increment();
+        if (next == CircuitState.OPEN) {
+            log.warn("Circuit for {} opened after {}; failing fast for {} ms", name, previous, settings.openDuration());
+        } else {
+            log.info("Circuit for {} moved from {} to {}", name, previous, next);
+        }
+    }
+
+    private Counter callCounter(String outcome) {
+        return Counter.builder("resilience.calls")
+                .tag("dependency", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.petlytic.cores.resilience;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits for one external dependency, bound from {@code resilience.<dependency>.*}.
+ *
+ * @param maxConcurrent        bulkhead size: calls allowed in flight at once
+ * @param maxWait              how long a caller may wait for a bulkhead slot (ms) before rejection
+ * @param windowSize           number of recent calls the failure rate is computed over
+ * @param minimumCalls         calls needed in the window before the circuit may open
+ * @param failureRateThreshold failure percentage at which the circuit opens
+ * @param openDuration         how long the circuit stays open before trial calls (ms)
+ * @param halfOpenCalls        trial calls that must succeed to close the circuit again
+ */
+public record GuardSettings(
+        @DefaultValue("10") int maxConcurrent,
+        @DefaultValue("50") long maxWait,
+        @DefaultValue("20") int windowSize,
+        @DefaultValue("10") int minimumCalls,
+        @DefaultValue("50") int failureRateThreshold,
+        @DefaultValue("30000") long openDuration,
+        @DefaultValue("3") int halfOpenCalls
+) {
+}
@@ -0,0 +1,6 @@
+package com.petlytic.cores.resilience;
+
+@FunctionalInterface
+public interface GuardedCall<T, E extends Exception> {
+    T call() throws E;
+}
@@ -0,0 +1,167 @@
+package com.petlytic.cores.resilience;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Google HTTP client transport on {@link HttpClient} with hard connect and response timeouts.
+ * {@code NetHttpTransport} applies the client library's own 20 s defaults to every request,
+ * which cannot be tightened for calls made inside the library (e.g. fetching Google's certs).
+ */
+public class JdkHttpTransport extends HttpTransport {
+    private final HttpClient client;
+    private final Duration readTimeout;
+
+    public JdkHttpTransport(Duration connectTimeout, Duration readTimeout) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new Request(method, url);
+    }
+
+    private final class Request extends LowLevelHttpRequest {
+        private final String method;
+        private final HttpRequest.Builder builder;
+        private Duration timeout = readTimeout;
+
+        private Request(String method, String url) {
+            this.method = method;
+            this.builder = HttpRequest.newBuilder(URI.create(url));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            try {
+                builder.header(name, value);
+            } catch (IllegalArgumentException e) {
+                // Restricted headers (Host, Content-Length, ...) are set by HttpClient itself.
+            }
+        }
+
+        @Override
+        public void setTimeout(int connectTimeout, int readTimeout) {
+            // Never looser than the configured timeout; 0 means "infinite" to the caller.
+            if (readTimeout > 0 && readTimeout < timeout.toMillis()) {
+                timeout = Duration.ofMillis(readTimeout);
+            }
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+            if (getStreamingContent() != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                getStreamingContent().writeTo(content);
+                body = HttpRequest.BodyPublishers.ofByteArray(content.toByteArray());
+                if (getContentType() != null) {
+                    builder.header("Content-Type", getContentType());
+                }
+            }
+            // The whole exchange, body included, must finish within the timeout.
+            HttpRequest request = builder.method(method, body).timeout(timeout).build();
+            CompletableFuture<HttpResponse<byte[]>> exchange = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            try {
+                return new Response(exchange.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                exchange.cancel(true);
+                throw new HttpTimeoutException(method + " " + request.uri() + " timed out after " + timeout.toMillis() + " ms");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                exchange.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while calling " + method + " " + request.uri());
+            }
+        }
+    }
+
+    private static final class Response extends LowLevelHttpResponse {
+        private final HttpResponse<byte[]> response;
+        private final List<String[]> headers = new ArrayList<>();
+
+        private Response(HttpResponse<byte[]> response) {
+            this.response = response;
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                for (String value : header.getValue()) {
+                    headers.add(new String[]{header.getKey(), value});
+                }
+            }
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new ByteArrayInputStream(response.body());
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return response.headers().firstValue("Content-Encoding").orElse(null);
+        }
+
+        @Override
+        public long getContentLength() {
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        public String getContentType() {
+            return response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public String getStatusLine() {
+            return "HTTP/1.1 " + response.statusCode();
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return null;
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return headers.size();
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return headers.get(index)[0];
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return headers.get(index)[1];
+        }
+    }
+}
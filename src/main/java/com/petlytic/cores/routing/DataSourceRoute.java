@@ -0,0 +1,6 @@
+package com.petlytic.cores.routing;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,50 @@
+package com.petlytic.cores.routing;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps replica reads out of the second-level cache. A read-only transaction may be served by a
+ * lagging replica, and anything it put into the shared cache would be served as current by
+ * every later read, primary ones included; such sessions only read the cache
+ * ({@link CacheMode#GET}).
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+    private final ReplicaRouting routing;
+
+    public ReplicaAwareJpaDialect(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || !routing.mayUseReplica()) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaTransactionData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaData) {
+            // The session outlives the transaction when it is bound to the request.
+            replicaData.session().setCacheMode(replicaData.previousCacheMode());
+            transactionData = replicaData.transactionData();
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReplicaTransactionData(Object transactionData, Session session, CacheMode previousCacheMode) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.petlytic.cores.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides where read-only connections go. They use the replica only while its last measured
+ * lag is within {@code maxLagMillis}; a failed or overdue measurement sends them back to the
+ * primary. Keys passed to {@link #recordWrite} (user emails after signup and verification) read
+ * from the primary until the replica is guaranteed to have caught up, which gives the writer
+ * read-your-writes on this node. Without a replica every read goes to the primary.
+ */
+@Slf4j
+public class ReplicaRouting {
+    /**
+     * Replay lag in milliseconds. A standby that has replayed everything it received is current
+     * even if its last replayed transaction is old, which happens whenever the primary is idle.
+     */
+    public static final String DEFAULT_LAG_QUERY = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce((extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0)
+                   end
+            """;
+
+    private final DataSource replicaDataSource;
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    private volatile long lagMillis = -1;
+    private volatile long checkedAt;
+    private volatile boolean usable;
+
+    public ReplicaRouting(DataSource replica, String lagQuery, long maxLagMillis, long checkIntervalMillis, MeterRegistry meterRegistry) {
+        this.replicaDataSource = replica;
+        this.replica = replica == null ? null : new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.primaryReads = readCounter(meterRegistry, DataSourceRoute.PRIMARY);
+        this.replicaReads = readCounter(meterRegistry, DataSourceRoute.REPLICA);
+        if (replica != null) {
+            Gauge.builder("datasource.replica.lag", this, routing -> routing.lagMillis)
+                    .baseUnit("milliseconds")
+                    .description("Last measured replica lag; -1 when it could not be measured")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.usable", this, routing -> routing.isReplicaUsable() ? 1 : 0)
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return replica != null;
+    }
+
+    public DataSource getReplicaDataSource() {
+        return replicaDataSource;
+    }
+
+    /**
+     * Whether a read-only transaction started now on this thread could be given the replica.
+     * Lag is measured when the connection is taken, so this only rules out the certain cases.
+     */
+    public boolean mayUseReplica() {
+        return replica != null && primaryOnly.get() == null;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isReplicaUsable() {
+        // A stale measurement is as good as none: the monitor itself may be stuck.
+        return usable && System.currentTimeMillis() - checkedAt <= 3 * checkIntervalMillis;
+    }
+
+    /**
+     * Target for the read-only connection being opened on the current thread.
+     */
+    public DataSourceRoute route() {
+        if (replica != null && primaryOnly.get() == null && isReplicaUsable()) {
+            replicaReads.increment();
+            return DataSourceRoute.REPLICA;
+        }
+        primaryReads.increment();
+        return DataSourceRoute.PRIMARY;
+    }
+
+    /**
+     * Marks {@code key} as just written, so {@link #readYourWrites} serves it from the primary
+     * for as long as the replica may still be missing the change.
+     */
+    public void recordWrite(String key) {
+        if (replica != null && key != null) {
+            // Reads use the replica only while the lag measured at most one interval ago was within the limit.
+            pinnedUntil.put(key, System.currentTimeMillis() + maxLagMillis + checkIntervalMillis);
+        }
+    }
+
+    /**
+     * Whether {@link #readYourWrites} would still send reads of {@code key} to the primary.
+     */
+    public boolean isPinnedToPrimary(String key) {
+        Long until = key == null ? null : pinnedUntil.get(key);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public <T> T readYourWrites(String key, Supplier<T> read) {
+        Long until = key == null ? null : pinnedUntil.get(key);
+        if (until == null) {
+            return read.get();
+        }
+        if (until <= System.currentTimeMillis()) {
+            pinnedUntil.remove(key, until);
+            return read.get();
+        }
+        return onPrimary(read);
+    }
+
+    /**
+     * Runs {@code read} with every connection it opens on the primary. A read-only transaction
+     * that already holds a replica connection keeps it.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = primaryOnly.get();
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                primaryOnly.remove();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:1000}")
+    public void checkLag() {
+        if (replica == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+        try {
+            Long lag = replica.queryForObject(lagQuery, Long.class);
+            updateLag(lag == null ? 0 : lag);
+        } catch (DataAccessException e) {
+            if (usable) {
+                log.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            }
+            lagMillis = -1;
+            usable = false;
+            checkedAt = now;
+        }
+    }
+
+    void updateLag(long lag) {
+        boolean withinLimit = lag <= maxLagMillis;
+        if (withinLimit != usable) {
+            if (withinLimit) {
+                log.info("Replica lag {} ms is within {} ms, routing read-only transactions to the replica", lag, maxLagMillis);
+            } else {
+                log.warn("Replica lag {} ms exceeds {} ms, reading from the primary", lag, maxLagMillis);
+            }
+        }
+        lagMillis = lag;
+        usable = withinLimit;
+        checkedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes the replica pool, which is owned here rather than registered as a bean.
+     */
+    public void close() throws Exception {
+        if (replicaDataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, DataSourceRoute route) {
+        return Counter.builder("datasource.reads")
+                .description("Read-only connections by the pool they were taken from")
+                .tag("target", route.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
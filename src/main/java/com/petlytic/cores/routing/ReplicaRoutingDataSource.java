@@ -0,0 +1,27 @@
+package com.petlytic.cores.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Target for read-only connections: the replica pool while {@link ReplicaRouting} considers it
+ * usable, otherwise the primary pool.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaRouting routing;
+
+    public ReplicaRoutingDataSource(ReplicaRouting routing, DataSource primary, DataSource replica) {
+        this.routing = routing;
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        initialize();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routing.route();
+    }
+}
@@ -0,0 +1,171 @@
+package com.petlytic.cores.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petlytic.configs.JwtFilter;
+import com.petlytic.cores.activity.ActivityRecorder;
+import com.petlytic.dtos.responses.LoginResponse;
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import com.petlytic.services.JwtService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the hot authentication paths with synthetic data before the readiness probe turns
+ * green, so the first real requests after a deploy hit compiled code. Runners complete
+ * before Spring Boot publishes {@code ACCEPTING_TRAFFIC}. Nothing here touches the database.
+ */
+@Slf4j
+@Component
+public class JitWarmup implements ApplicationRunner {
+    private static final String SYNTHETIC_EMAIL = "warmup@petlytic.invalid";
+
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final JwtFilter jwtFilter;
+    private final MeterRegistry meterRegistry;
+    private final User syntheticUser;
+
+    private volatile Report lastReport;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:2000}")
+    private int iterations;
+
+    @Value("${warmup.bcrypt-iterations:8}")
+    private int bcryptIterations;
+
+    @Value("${warmup.max-duration:15000}")
+    private long maxDurationMillis;
+
+    public JitWarmup(
+            JwtService jwtService,
+            PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.syntheticUser = User.builder()
+                .id(UUID.randomUUID())
+                .username("warmup")
+                .email(SYNTHETIC_EMAIL)
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build();
+        // Same filter code, but resolving the synthetic user instead of querying the database, and
+        // dropping its activity instead of queueing writes and invalidations for it.
+        this.jwtFilter = new JwtFilter(handlerExceptionResolver, jwtService, username -> syntheticUser, ActivityRecorder.NONE);
+    }
+
+    public record Report(int iterations, long durationMillis, long compilationMillis, long codeCacheGrowthBytes) {
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Report report = warmUp();
+            lastReport = report;
+            registerMetrics(report);
+            log.info("JIT warm-up: {} iterations in {} ms, {} ms of JIT compilation, code cache +{} KB",
+                    report.iterations(), report.durationMillis(), report.compilationMillis(),
+                    report.codeCacheGrowthBytes() / 1024);
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; it must never keep the node out of rotation.
+            log.warn("JIT warm-up failed, continuing without it: {}", e.getMessage());
+        }
+    }
+
+    private Report warmUp() throws Exception {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean timed = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long compilationBefore = timed ? compiler.getTotalCompilationTime() : 0;
+        long codeCacheBefore = codeCacheUsed();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+
+        String hash = passwordEncoder.encode("warmup-password");
+        int completed = 0;
+        while (completed < iterations && System.nanoTime() < deadline) {
+            String token = jwtService.generateToken(syntheticUser);
+            jwtService.isTokenValid(token, syntheticUser);
+            filter(token);
+            objectMapper.writeValueAsBytes(LoginResponse.builder()
+                    .accessToken(token)
+                    .expiresIn(jwtService.getExpirationTime())
+                    .build());
+            objectMapper.writeValueAsBytes(syntheticUser);
+            if (completed < bcryptIterations) {
+                passwordEncoder.matches("warmup-password", hash);
+            }
+            completed++;
+        }
+
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long compilation = timed ? compiler.getTotalCompilationTime() - compilationBefore : -1;
+        return new Report(completed, duration, compilation, codeCacheUsed() - codeCacheBefore);
+    }
+
+    private void filter(String token) throws Exception {
+        try {
+            jwtFilter.doFilter(SyntheticRequest.withAuthorization("Bearer " + token), SyntheticRequest.response(),
+                    (request, response) -> {
+                    });
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void registerMetrics(Report report) {
+        TimeGauge.builder("warmup.duration", report, TimeUnit.MILLISECONDS, Report::durationMillis)
+                .description("Time spent in the JIT warm-up before readiness")
+                .register(meterRegistry);
+        TimeGauge.builder("warmup.compilation.time", report, TimeUnit.MILLISECONDS, Report::compilationMillis)
+                .description("JIT compilation time accumulated during the warm-up")
+                .register(meterRegistry);
+        Gauge.builder("warmup.code.cache.growth", report, Report::codeCacheGrowthBytes)
+                .baseUnit("bytes")
+                .description("Code cache growth during the warm-up")
+                .register(meterRegistry);
+    }
+
+    private static long codeCacheUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.NON_HEAP && pool.getName().contains("Code")) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,25 @@
+package com.petlytic.dtos.requests;
+
+import com.petlytic.models.enums.PetSpecies;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class CreatePetDTO {
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    @NotNull(message = "Species is required")
+    private PetSpecies species;
+
+    private String breed;
+
+    @PastOrPresent(message = "Birth date cannot be in the future")
+    private LocalDate birthDate;
+}
@@ -7,4 +7,10 @@ import lombok.Setter;
 @Setter
 public class GoogleLoginDTO {
     private String idToken;
+
+    /**
+     * Optional id the client keeps for this device. A login with the same id replaces that
+     * device's earlier session; without one, every login opens a new session.
+     */
+    private String device;
 }
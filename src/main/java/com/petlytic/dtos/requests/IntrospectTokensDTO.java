@@ -0,0 +1,16 @@
+package com.petlytic.dtos.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class IntrospectTokensDTO {
+    @NotEmpty(message = "Tokens are required")
+    @Size(max = 1000, message = "At most 1000 tokens can be introspected at once")
+    private List<String> tokens;
+}
@@ -8,4 +8,10 @@ import lombok.Setter;
 public class LoginUserDTO {
     private String email;
     private String password;
+
+    /**
+     * Optional id the client keeps for this device. A login with the same id replaces that
+     * device's earlier session; without one, every login opens a new session.
+     */
+    private String device;
 }
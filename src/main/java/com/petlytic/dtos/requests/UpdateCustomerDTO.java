@@ -0,0 +1,16 @@
+package com.petlytic.dtos.requests;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class UpdateCustomerDTO {
+    @NotBlank(message = "Full name is required")
+    private String fullName;
+
+    private String phoneNumber;
+
+    private String address;
+}
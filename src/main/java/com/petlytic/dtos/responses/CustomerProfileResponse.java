@@ -0,0 +1,19 @@
+package com.petlytic.dtos.responses;
+
+import com.petlytic.repositories.projections.ClinicSummary;
+import com.petlytic.repositories.projections.CustomerHeader;
+import com.petlytic.repositories.projections.PetSummary;
+import com.petlytic.repositories.projections.VisitSummary;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class CustomerProfileResponse {
+    private CustomerHeader customer;
+    private List<PetSummary> pets;
+    private List<ClinicSummary> clinics;
+    private List<VisitSummary> recentVisits;
+}
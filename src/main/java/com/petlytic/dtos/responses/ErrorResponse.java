@@ -0,0 +1,20 @@
+package com.petlytic.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ErrorResponse(
+        LocalDateTime timestamp,
+        int status,
+        String error,
+        String code,
+        String message,
+        Map<String, String> details
+) {
+    public static ErrorResponse of(int status, String error, String message) {
+        return new ErrorResponse(LocalDateTime.now(), status, error, null, message, null);
+    }
+}
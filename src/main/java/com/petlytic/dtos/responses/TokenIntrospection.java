@@ -0,0 +1,26 @@
+package com.petlytic.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+    private boolean active;
+
+    /**
+     * {@code access} or {@code refresh}, from the token's {@code typ} claim.
+     */
+    private String tokenType;
+
+    private String subject;
+
+    private Long expiresAt;
+
+    /**
+     * Why an inactive token is inactive: {@code invalid}, {@code expired} or {@code revoked}.
+     */
+    private String reason;
+}
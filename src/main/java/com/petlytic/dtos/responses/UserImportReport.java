@@ -0,0 +1,15 @@
+package com.petlytic.dtos.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class UserImportReport {
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private List<UserImportRow> rows;
+}
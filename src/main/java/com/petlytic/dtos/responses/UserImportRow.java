@@ -0,0 +1,16 @@
+package com.petlytic.dtos.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.petlytic.models.enums.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportRow {
+    private int row;
+    private String email;
+    private ImportStatus status;
+    private String message;
+}
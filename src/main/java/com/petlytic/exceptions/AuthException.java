@@ -0,0 +1,18 @@
+package com.petlytic.exceptions;
+
+import com.petlytic.models.enums.AuthErrorCode;
+import lombok.Getter;
+
+/**
+ * An expected authentication failure. It carries no stack trace: these are thrown for
+ * ordinary bad input, often at high rates, and the trace would never be read.
+ */
+@Getter
+public class AuthException extends RuntimeException {
+    private final AuthErrorCode code;
+
+    public AuthException(AuthErrorCode code) {
+        super(code.getMessage(), null, false, false);
+        this.code = code;
+    }
+}
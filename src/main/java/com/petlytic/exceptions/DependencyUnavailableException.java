@@ -0,0 +1,18 @@
+package com.petlytic.exceptions;
+
+import lombok.Getter;
+
+/**
+ * An external dependency was not called because its bulkhead is full or its circuit is open.
+ */
+@Getter
+public class DependencyUnavailableException extends RuntimeException {
+    private final String dependency;
+    private final long retryAfterSeconds;
+
+    public DependencyUnavailableException(String dependency, String reason, long retryAfterSeconds) {
+        super(dependency + " is unavailable: " + reason, null, false, false);
+        this.dependency = dependency;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
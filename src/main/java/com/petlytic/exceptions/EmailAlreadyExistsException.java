@@ -2,6 +2,6 @@ package com.petlytic.exceptions;
 
 public class EmailAlreadyExistsException extends RuntimeException{
     public EmailAlreadyExistsException(String message){
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,14 @@
+package com.petlytic.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class InvalidUploadException extends RuntimeException {
+    private final HttpStatus status;
+
+    public InvalidUploadException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+}
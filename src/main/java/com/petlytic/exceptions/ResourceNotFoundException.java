@@ -10,7 +10,7 @@ public class ResourceNotFoundException extends RuntimeException {
         super(String.format("%s not found with %s: '%s'",
                 resourceName.getLabel(),
                 fieldName,
-                fieldValue));
+                fieldValue), null, false, false);
     }
 
 
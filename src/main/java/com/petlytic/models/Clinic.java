@@ -0,0 +1,32 @@
+package com.petlytic.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "clinics")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog")
+@BatchSize(size = 50)
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Clinic {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String address;
+
+    @Column(name = "phone_number")
+    private String phoneNumber;
+}
@@ -1,4 +1,79 @@
 package com.petlytic.models;
 
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Pet owner profile, one per {@link User}. Collections are lazy; endpoints pick a fetch
+ * plan through the named entity graphs, and anything loaded outside a graph is fetched
+ * in batches rather than one query per owner.
+ */
+@Entity
+@Table(name = "customers")
+@NamedEntityGraph(name = Customer.GRAPH_SUMMARY, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = Customer.GRAPH_WITH_PETS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("pets")
+})
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class Customer {
+    public static final String GRAPH_SUMMARY = "Customer.summary";
+    public static final String GRAPH_WITH_PETS = "Customer.withPets";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+
+    @Column(name = "full_name", nullable = false)
+    private String fullName;
+
+    @Column(name = "phone_number")
+    private String phoneNumber;
+
+    private String address;
+
+    @Builder.Default
+    @BatchSize(size = 50)
+    @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("name")
+    private Set<Pet> pets = new LinkedHashSet<>();
+
+    @Builder.Default
+    @BatchSize(size = 50)
+    @ManyToMany
+    @JoinTable(
+            name = "customer_clinics",
+            joinColumns = @JoinColumn(name = "customer_id"),
+            inverseJoinColumns = @JoinColumn(name = "clinic_id")
+    )
+    private Set<Clinic> clinics = new LinkedHashSet<>();
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public void addPet(Pet pet) {
+        pet.setCustomer(this);
+        pets.add(pet);
+    }
 }
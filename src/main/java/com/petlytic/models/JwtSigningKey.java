@@ -0,0 +1,39 @@
+package com.petlytic.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name="jwt_signing_keys")
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JwtSigningKey {
+    @Id
+    private String kid;
+
+    @Column(nullable = false)
+    private String algorithm;
+
+    @Column(name = "public_key", nullable = false)
+    private byte[] publicKey;
+
+    /**
+     * PKCS#8 private key, AES-GCM encrypted with a key derived from {@code security.jwt.secret-key}.
+     */
+    @Column(name = "encrypted_private_key", nullable = false)
+    private byte[] encryptedPrivateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
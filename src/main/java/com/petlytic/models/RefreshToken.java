@@ -5,11 +5,19 @@ import lombok.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Entity
-@Table(name="refresh_tokens")
+@Table(name="refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id, revoked"),
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id, revoked"),
+        @Index(name = "idx_refresh_tokens_revoked_access_expiry", columnList = "revoked, access_token_expires_at")
+})
 @Setter
 @Getter
 @Builder
@@ -20,6 +28,9 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    /**
+     * SHA-256 of the refresh JWT (see {@link #digest}); ES256 tokens do not fit the column.
+     */
     @Column(unique = true, nullable = false)
     private String token;
 
@@ -29,6 +40,26 @@ public class RefreshToken {
     @Column(nullable = false)
     private Boolean revoked;
 
+    /**
+     * The session (one login on one device) this token belongs to; every rotation stays in the
+     * family, so exactly one row per live session is unrevoked. Null on rows from before families.
+     */
+    @Column(name = "family_id")
+    private UUID familyId;
+
+    @Column(name = "device_label", length = 100)
+    private String deviceLabel;
+
+    /**
+     * {@code jti} and expiry of the access token issued together with this refresh token, so that
+     * reuse detection can deny it. Null on rows written before access tokens carried a {@code jti}.
+     */
+    @Column(name = "access_token_id", length = 36)
+    private String accessTokenId;
+
+    @Column(name = "access_token_expires_at")
+    private LocalDateTime accessTokenExpiresAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -37,4 +68,13 @@ public class RefreshToken {
     public boolean isRevoked() {
         return revoked;
     }
+
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
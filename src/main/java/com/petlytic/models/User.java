@@ -1,9 +1,16 @@
 package com.petlytic.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.petlytic.models.enums.Role;
+import com.petlytic.models.listeners.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,13 +22,21 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name="users")
+@Table(name="users", uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
+@EntityListeners(UserChangeListener.class)
 @Setter
 @Getter
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class User implements UserDetails {
+    /**
+     * Named so a signup that loses the race for an email can be told apart from other violations.
+     */
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -29,7 +44,8 @@ public class User implements UserDetails {
     @Column(unique = true, nullable = false)
     private String username;
 
-    @Column(unique = true, nullable = false)
+    @NaturalId
+    @Column(nullable = false)
     private String email;
 
     @Column(name = "phone_number")
@@ -55,6 +71,27 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "verification_nonce", nullable = false)
+    private int verificationNonce;
+
+    @JsonIgnore
+    @Column(name = "verification_sent_at")
+    private LocalDateTime verificationSentAt;
+
+    /**
+     * Written only by {@link com.petlytic.cores.activity.ActivityTracker}, behind the entity's
+     * back: they do not move {@code updatedAt} or the ETag, and cached copies may lag.
+     */
+    @JsonIgnore
+    @Column(name = "last_login_at", insertable = false, updatable = false)
+    private LocalDateTime lastLoginAt;
+
+    @JsonIgnore
+    @Column(name = "last_seen_at", insertable = false, updatable = false)
+    private LocalDateTime lastSeenAt;
+
 
     public User(String username, String email, String password) {
         this.username = username;
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name="verification_tokens")
+@Table(name="verification_tokens", indexes = @Index(name = "idx_verification_tokens_user_id", columnList = "user_id, verification_code"))
 @Setter
 @Getter
 @Builder
@@ -0,0 +1,33 @@
+package com.petlytic.models.enums;
+
+import com.petlytic.dtos.responses.ErrorResponse;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected authentication failures. Each code carries its response body, built once,
+ * so rejecting a request allocates nothing beyond the exception itself.
+ */
+@Getter
+public enum AuthErrorCode {
+    BAD_CREDENTIALS(HttpStatus.UNAUTHORIZED, "Bad credentials"),
+    ACCOUNT_NOT_VERIFIED(HttpStatus.FORBIDDEN, "Account not verified. Please verify your account."),
+    ACCOUNT_ALREADY_VERIFIED(HttpStatus.BAD_REQUEST, "Account is already verified"),
+    INVALID_VERIFICATION_CODE(HttpStatus.BAD_REQUEST, "Invalid verification code"),
+    EXPIRED_VERIFICATION_CODE(HttpStatus.BAD_REQUEST, "Verification code has expired"),
+    RESEND_TOO_SOON(HttpStatus.TOO_MANY_REQUESTS, "Please wait before requesting another verification code"),
+    REFRESH_TOKEN_NOT_FOUND(HttpStatus.UNAUTHORIZED, "Refresh token not found"),
+    REFRESH_TOKEN_REVOKED(HttpStatus.UNAUTHORIZED, "Refresh token was revoked. Please login again."),
+    REFRESH_TOKEN_EXPIRED(HttpStatus.UNAUTHORIZED, "Refresh token expired"),
+    INVALID_GOOGLE_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid Google ID Token");
+
+    private final HttpStatus status;
+    private final String message;
+    private final ErrorResponse body;
+
+    AuthErrorCode(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+        this.body = new ErrorResponse(null, status.value(), status.getReasonPhrase(), name(), message, null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.petlytic.models.enums;
+
+public enum ImportStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+}
@@ -0,0 +1,9 @@
+package com.petlytic.models.enums;
+
+public enum PetSpecies {
+    DOG,
+    CAT,
+    BIRD,
+    RABBIT,
+    OTHER,
+}
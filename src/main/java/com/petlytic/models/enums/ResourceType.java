@@ -5,6 +5,9 @@ import lombok.Getter;
 @Getter
 public enum ResourceType {
     USER("User"),
+    CUSTOMER("Customer"),
+    PET("Pet"),
+    AVATAR("Avatar"),
     ROLE("Role"),
     PRODUCT("Product"),
     ORDER("Order"),
@@ -3,4 +3,5 @@ package com.petlytic.models.enums;
 public enum Role {
     ADMIN,
     CUSTOMER,
+    SERVICE,
 }
@@ -0,0 +1,6 @@
+package com.petlytic.models.enums;
+
+public enum VerificationMode {
+    TOKEN,
+    HMAC,
+}
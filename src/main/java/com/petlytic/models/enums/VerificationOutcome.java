@@ -0,0 +1,9 @@
+package com.petlytic.models.enums;
+
+public enum VerificationOutcome {
+    VERIFIED,
+    USER_NOT_FOUND,
+    ALREADY_VERIFIED,
+    INVALID_CODE,
+    EXPIRED_CODE,
+}
@@ -0,0 +1,26 @@
+package com.petlytic.models.listeners;
+
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationTopic;
+import com.petlytic.models.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserChangeListener {
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public UserChangeListener(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    // Inserts matter too: other nodes may have cached that the email does not exist.
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(User user) {
+        cacheInvalidationBus.publish(InvalidationTopic.USER, user.getId());
+    }
+}
@@ -0,0 +1,47 @@
+package com.petlytic.repositories;
+
+import com.petlytic.cores.denylist.TokenDenylist;
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationHandler;
+import com.petlytic.cores.invalidation.InvalidationTopic;
+import com.petlytic.repositories.projections.IssuedAccessToken;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Copies access-token revocations made on other nodes into this node's denylist.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessTokenDenylistHandler implements InvalidationHandler {
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TokenDenylist tokenDenylist;
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @PostConstruct
+    void subscribe() {
+        cacheInvalidationBus.subscribe(InvalidationTopic.ACCESS_TOKEN, this);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        int at = key.lastIndexOf('@');
+        tokenDenylist.deny(key.substring(0, at), Long.parseLong(key.substring(at + 1)));
+    }
+
+    /**
+     * Events missed while disconnected are recovered from the ended sessions' rows, which every
+     * revocation writes.
+     */
+    @Override
+    public void invalidateAll() {
+        for (IssuedAccessToken token : refreshTokenRepository.findLiveAccessTokensOfEndedSessions(LocalDateTime.now())) {
+            tokenDenylist.deny(token.getAccessTokenId(),
+                    token.getAccessTokenExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.petlytic.repositories;
+
+import com.petlytic.cores.BaseRepository;
+import com.petlytic.models.Customer;
+import com.petlytic.repositories.projections.ClinicSummary;
+import com.petlytic.repositories.projections.CustomerHeader;
+import com.petlytic.repositories.projections.PetSummary;
+import com.petlytic.repositories.projections.VisitSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CustomerRepository extends BaseRepository<Customer, UUID> {
+    @EntityGraph(Customer.GRAPH_SUMMARY)
+    Optional<Customer> findByUserId(UUID userId);
+
+    @EntityGraph(Customer.GRAPH_WITH_PETS)
+    Optional<Customer> findWithPetsByUserId(UUID userId);
+
+    @Query("select c.id from Customer c where c.user.id = :userId")
+    Optional<UUID> findIdByUserId(UUID userId);
+
+    // Profile screen read model: four fixed queries, whatever the number of pets and visits.
+
+    @Query("""
+            select c.id as id, c.fullName as fullName, u.email as email, c.phoneNumber as phoneNumber,
+                   c.address as address, u.avatarUrl as avatarUrl
+            from Customer c join c.user u
+            where u.id = :userId
+            """)
+    Optional<CustomerHeader> findHeaderByUserId(UUID userId);
+
+    @Query("""
+            select p.id as id, p.name as name, p.species as species, p.breed as breed, p.birthDate as birthDate,
+                   count(v.id) as visitCount, max(v.visitedAt) as lastVisitAt
+            from Pet p left join p.visits v
+            where p.customer.id = :customerId
+            group by p.id, p.name, p.species, p.breed, p.birthDate
+            order by p.name
+            """)
+    List<PetSummary> findPetSummaries(UUID customerId);
+
+    @Query("""
+            select cl.id as id, cl.name as name, cl.address as address, cl.phoneNumber as phoneNumber
+            from Customer c join c.clinics cl
+            where c.id = :customerId
+            order by cl.name
+            """)
+    List<ClinicSummary> findClinicSummaries(UUID customerId);
+
+    @Query("""
+            select v.id as id, p.id as petId, p.name as petName, cl.name as clinicName,
+                   v.visitedAt as visitedAt, v.reason as reason
+            from Visit v join v.pet p left join v.clinic cl
+            where p.customer.id = :customerId
+            order by v.visitedAt desc
+            """)
+    List<VisitSummary> findRecentVisits(UUID customerId, Limit limit);
+}
@@ -0,0 +1,62 @@
+package com.petlytic.repositories;
+
+import com.petlytic.models.User;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops the unique constraints on {@code users.email} that Hibernate generated before
+ * {@link User#EMAIL_UNIQUE_CONSTRAINT} was named. {@code ddl-auto=update} adds the named one
+ * but never drops the old ones, and Postgres reports whichever it checks first, so signup could
+ * not recognize a lost email race on databases created before.
+ */
+@Slf4j
+@Component
+// Runs after Hibernate's schema update has created the named constraint.
+@DependsOn("entityManagerFactory")
+public class EmailConstraintUpgrade {
+    private static final String LEGACY_CONSTRAINTS = """
+            select c.conname from pg_constraint c
+            join pg_attribute a on a.attrelid = c.conrelid and a.attnum = c.conkey[1]
+            where c.conrelid = 'users'::regclass and c.contype = 'u'
+              and cardinality(c.conkey) = 1 and a.attname = 'email' and c.conname <> ?
+            """;
+    private static final String NAMED_CONSTRAINT_EXISTS =
+            "select exists (select 1 from pg_constraint where conrelid = 'users'::regclass and conname = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    public EmailConstraintUpgrade(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void dropLegacyConstraints() {
+        // Schema changes are left to the same setting that lets Hibernate make them.
+        if (!"update".equals(ddlAuto)) {
+            return;
+        }
+        List<String> legacy = jdbcTemplate.queryForList(LEGACY_CONSTRAINTS, String.class, User.EMAIL_UNIQUE_CONSTRAINT);
+        if (legacy.isEmpty()) {
+            return;
+        }
+        // Never leave the column without a unique constraint, e.g. if the update could not add ours.
+        if (!jdbcTemplate.queryForObject(NAMED_CONSTRAINT_EXISTS, Boolean.class, User.EMAIL_UNIQUE_CONSTRAINT)) {
+            log.warn("{} is missing, keeping {} on users.email", User.EMAIL_UNIQUE_CONSTRAINT, legacy);
+            return;
+        }
+        for (String constraint : legacy) {
+            jdbcTemplate.execute("alter table users drop constraint \"" + constraint + "\"");
+            log.info("Dropped {} on users.email, superseded by {}", constraint, User.EMAIL_UNIQUE_CONSTRAINT);
+        }
+    }
+}
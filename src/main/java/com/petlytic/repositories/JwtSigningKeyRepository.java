@@ -0,0 +1,22 @@
+package com.petlytic.repositories;
+
+import com.petlytic.cores.BaseRepository;
+import com.petlytic.models.JwtSigningKey;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends BaseRepository<JwtSigningKey, String> {
+    List<JwtSigningKey> findAllByExpiresAtAfterOrderByActivatesAtDesc(LocalDateTime now);
+
+    @Modifying
+    @Query("delete from JwtSigningKey k where k.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+
+    @Query(nativeQuery = true, value = "select pg_try_advisory_xact_lock(:lockId)")
+    boolean tryAdvisoryLock(long lockId);
+}
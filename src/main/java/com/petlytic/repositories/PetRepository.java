@@ -0,0 +1,11 @@
+package com.petlytic.repositories;
+
+import com.petlytic.cores.BaseRepository;
+import com.petlytic.models.Pet;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PetRepository extends BaseRepository<Pet, UUID> {
+}
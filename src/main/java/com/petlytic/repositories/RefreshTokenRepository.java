@@ -1,18 +1,86 @@
 package com.petlytic.repositories;
 
+import com.petlytic.cores.BaseRepository;
 import com.petlytic.models.RefreshToken;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.petlytic.repositories.projections.IssuedAccessToken;
+import com.petlytic.repositories.projections.RefreshTokenState;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+public interface RefreshTokenRepository extends BaseRepository<RefreshToken, UUID> {
     Optional<RefreshToken> findByToken(String refreshToken);
 
+    /**
+     * Rows written before tokens were stored as digests hold the raw token.
+     */
+    default Optional<RefreshToken> findByRawToken(String refreshToken) {
+        return findByToken(RefreshToken.digest(refreshToken))
+                .or(() -> findByToken(refreshToken));
+    }
+
+    @Query("select t.token as token, t.revoked as revoked, t.expiresAt as expiresAt from RefreshToken t where t.token in :tokens")
+    List<RefreshTokenState> findStatesByTokenIn(Collection<String> tokens);
+
     @Query("select t from RefreshToken t where t.user.id = :userId and t.revoked = false")
     List<RefreshToken> findAllValidTokenByUser(UUID userId);
+
+    /**
+     * Access tokens issued alongside this user's refresh tokens that are still unexpired at {@code now}.
+     */
+    @Query("""
+            select t.accessTokenId as accessTokenId, t.accessTokenExpiresAt as accessTokenExpiresAt from RefreshToken t
+            where t.user.id = :userId and t.accessTokenExpiresAt > :now
+            """)
+    List<IssuedAccessToken> findLiveAccessTokensByUser(UUID userId, LocalDateTime now);
+
+    /**
+     * The user's live sessions (the unrevoked row of each family), least recently refreshed first.
+     */
+    @Query("""
+            select t from RefreshToken t
+            where t.user.id = :userId and t.revoked = false and t.expiresAt > :now
+            order by t.expiresAt
+            """)
+    List<RefreshToken> findActiveSessionsByUser(UUID userId, LocalDateTime now);
+
+    @Query("""
+            select t.accessTokenId as accessTokenId, t.accessTokenExpiresAt as accessTokenExpiresAt from RefreshToken t
+            where t.familyId in :familyIds and t.accessTokenExpiresAt > :now
+            """)
+    List<IssuedAccessToken> findLiveAccessTokensByFamilyIn(Collection<UUID> familyIds, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.user.id = :userId and t.revoked = false")
+    int revokeAllValidTokensByUser(UUID userId);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.revoked = false")
+    int revokeFamily(UUID familyId);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.id in :ids and t.revoked = false")
+    int revokeByIdIn(Collection<UUID> ids);
+
+    /**
+     * Unexpired access tokens of sessions that have ended: families with no unrevoked row left.
+     * Rotated rows of live sessions are not included.
+     */
+    @Query("""
+            select t.accessTokenId as accessTokenId, t.accessTokenExpiresAt as accessTokenExpiresAt from RefreshToken t
+            where t.revoked = true and t.accessTokenId is not null and t.accessTokenExpiresAt > :now
+              and not exists (select 1 from RefreshToken live where live.familyId = t.familyId and live.revoked = false)
+            """)
+    List<IssuedAccessToken> findLiveAccessTokensOfEndedSessions(LocalDateTime now);
 }
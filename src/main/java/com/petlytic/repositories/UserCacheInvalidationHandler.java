@@ -0,0 +1,45 @@
+package com.petlytic.repositories;
+
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationHandler;
+import com.petlytic.cores.invalidation.InvalidationTopic;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidationHandler implements InvalidationHandler {
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final UserRepository userRepository;
+    // Touched only by the listener thread.
+    private boolean lookupsStale;
+
+    @PostConstruct
+    void subscribe() {
+        cacheInvalidationBus.subscribe(InvalidationTopic.USER, this);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        userRepository.evictFromCache(UUID.fromString(key));
+        // A signup or delete elsewhere also changes what an email resolves to.
+        lookupsStale = true;
+    }
+
+    @Override
+    public void afterBatch() {
+        // The lookup regions cannot be evicted per user; clear them once for the whole batch.
+        if (lookupsStale) {
+            lookupsStale = false;
+            userRepository.evictLookupsFromCache();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        userRepository.evictAllFromCache();
+    }
+}
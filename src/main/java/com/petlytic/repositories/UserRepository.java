@@ -1,15 +1,51 @@
 package com.petlytic.repositories;
 
+import com.petlytic.cores.BaseRepository;
 import com.petlytic.models.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByEmail(String email);
-
+public interface UserRepository extends BaseRepository<User, UUID>, UserRepositoryCustom {
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByEmail(String email);
+
+    /**
+     * Activates a pending user and bumps its nonce, provided the nonce is still {@code nonce}, so
+     * a signed code is consumed once even by concurrent requests. Returns the rows changed. The row
+     * is changed behind Hibernate's back, so callers must evict it from the cache.
+     */
+    @Query(nativeQuery = true, value = """
+            WITH activated AS (
+                UPDATE users
+                SET is_active = true, verification_nonce = verification_nonce + 1, updated_at = :now
+                WHERE id = :id AND verification_nonce = :nonce AND NOT is_active
+                RETURNING id
+            )
+            SELECT count(*) FROM activated
+            """)
+    int activateWithNonce(UUID id, int nonce, LocalDateTime now);
+
+    /**
+     * Replaces a pending user's signed code: bumps the nonce and moves {@code verification_sent_at},
+     * provided the nonce is still {@code nonce}. Returns the rows changed; callers must evict the row.
+     */
+    @Query(nativeQuery = true, value = """
+            WITH reissued AS (
+                UPDATE users
+                SET verification_nonce = verification_nonce + 1, verification_sent_at = :sentAt, updated_at = :now
+                WHERE id = :id AND verification_nonce = :nonce AND NOT is_active
+                RETURNING id
+            )
+            SELECT count(*) FROM reissued
+            """)
+    int reissueWithNonce(UUID id, int nonce, LocalDateTime sentAt, LocalDateTime now);
 }
@@ -0,0 +1,36 @@
+package com.petlytic.repositories;
+
+import com.petlytic.models.User;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+    /**
+     * Resolves the user through the natural-id cache, so repeated lookups by email
+     * (login, JWT filter) are served from the second-level cache.
+     */
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Creates an active Google user, or activates the existing user with that email,
+     * in one statement so concurrent first logins cannot race on the email constraint. A first
+     * login that loses a race for the same username is retried with a random suffix.
+     */
+    User upsertGoogleUser(String username, String email, String avatarUrl);
+
+    /**
+     * Drops the cached state of a user whose row was changed by native SQL,
+     * which Hibernate cannot track.
+     */
+    void evictFromCache(UUID id);
+
+    /**
+     * Drops the cached email lookups: the natural-id mappings and cached query results such as
+     * {@code existsByEmail}. Neither can be evicted per user, and Hibernate only keeps them in
+     * step with writes made through this node.
+     */
+    void evictLookupsFromCache();
+
+    void evictAllFromCache();
+}
@@ -0,0 +1,113 @@
+package com.petlytic.repositories;
+
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    // Falls back to the email as username when the Google display name is taken by another account.
+    private static final String UPSERT_GOOGLE_USER = """
+            insert into users as u (id, username, email, password, is_active, role, avatar_url,
+                                    created_at, updated_at, verification_nonce)
+            values (:id,
+                    case when exists (select 1 from users where username = :username) then :email else :username end,
+                    :email, null, true, :role, :avatarUrl, now(), now(), 0)
+            on conflict (email) do update
+                set is_active = true,
+                    updated_at = now()
+            returning u.*
+            """;
+    private static final int MAX_USERNAME_ATTEMPTS = 5;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate attemptTemplate;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        // A failed statement aborts the Postgres transaction, so each attempt needs its own.
+        attemptTemplate = new TransactionTemplate(transactionManager);
+        attemptTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public User upsertGoogleUser(String username, String email, String avatarUrl) {
+        String base = username == null ? email : username;
+        String candidate = base;
+        for (int attempt = 1; ; attempt++) {
+            String chosen = candidate;
+            try {
+                User user = attemptTemplate.execute(status -> (User) entityManager.createNativeQuery(UPSERT_GOOGLE_USER, User.class)
+                        .setParameter("id", UUID.randomUUID())
+                        .setParameter("username", chosen)
+                        .setParameter("email", email)
+                        .setParameter("role", Role.CUSTOMER.name())
+                        .setParameter("avatarUrl", avatarUrl)
+                        .getSingleResult());
+                evictFromCache(user.getId());
+                return user;
+            } catch (ConstraintViolationException e) {
+                // The email conflict is handled in SQL, so this is a concurrent first login that took
+                // the same display name (or email fallback) between our check and our insert.
+                if (attempt == MAX_USERNAME_ATTEMPTS) {
+                    throw e;
+                }
+                candidate = base + "-" + HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt()).substring(0, 6);
+            }
+        }
+    }
+
+    @Override
+    public void evictFromCache(UUID id) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(User.class, id);
+
+        // A concurrent reader may re-cache the old row before our transaction commits.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(User.class, id);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void evictLookupsFromCache() {
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictNaturalIdData(User.class);
+        cache.evictDefaultQueryRegion();
+    }
+
+    @Override
+    public void evictAllFromCache() {
+        entityManager.getEntityManagerFactory().getCache().evict(User.class);
+        evictLookupsFromCache();
+    }
+}
@@ -1,16 +1,57 @@
 package com.petlytic.repositories;
 
+import com.petlytic.cores.BaseRepository;
 import com.petlytic.models.User;
 import com.petlytic.models.VerificationToken;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.petlytic.repositories.projections.VerificationResult;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface VerificationTokenRepository extends JpaRepository<VerificationToken, UUID> {
+public interface VerificationTokenRepository extends BaseRepository<VerificationToken, UUID> {
     Optional<VerificationToken> findByUserAndVerificationCode(User user, String verificationCode);
 
     void deleteAllByUser(User user);
+
+    /**
+     * Activates the user and consumes a matching, non-expired code in one round trip.
+     * The user row is changed behind Hibernate's back, so callers must evict it from the cache.
+     */
+    @Query(nativeQuery = true, value = """
+            WITH target AS (
+                SELECT u.id AS user_id, u.is_active, t.id AS token_id, t.verication_expiration AS expires_at
+                FROM users u
+                LEFT JOIN verification_tokens t ON t.user_id = u.id AND t.verification_code = :code
+                WHERE u.email = :email
+                ORDER BY t.verication_expiration DESC NULLS LAST
+                LIMIT 1
+            ),
+            consumed AS (
+                DELETE FROM verification_tokens v
+                USING target
+                WHERE v.id = target.token_id
+                  AND NOT target.is_active
+                  AND target.expires_at >= :now
+                RETURNING v.user_id
+            ),
+            activated AS (
+                UPDATE users u
+                SET is_active = true, updated_at = :now
+                FROM consumed
+                WHERE u.id = consumed.user_id
+                RETURNING u.id
+            )
+            SELECT (SELECT user_id FROM target) AS userId, CASE
+                WHEN NOT EXISTS (SELECT 1 FROM target) THEN 'USER_NOT_FOUND'
+                WHEN EXISTS (SELECT 1 FROM activated) THEN 'VERIFIED'
+                WHEN (SELECT is_active FROM target) THEN 'ALREADY_VERIFIED'
+                WHEN (SELECT token_id FROM target) IS NULL THEN 'INVALID_CODE'
+                ELSE 'EXPIRED_CODE'
+            END AS outcome
+            """)
+    VerificationResult consumeVerificationCode(String email, String code, LocalDateTime now);
 }
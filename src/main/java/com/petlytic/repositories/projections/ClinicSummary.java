@@ -0,0 +1,13 @@
+package com.petlytic.repositories.projections;
+
+import java.util.UUID;
+
+public interface ClinicSummary {
+    UUID getId();
+
+    String getName();
+
+    String getAddress();
+
+    String getPhoneNumber();
+}
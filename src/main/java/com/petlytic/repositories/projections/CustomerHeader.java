@@ -0,0 +1,17 @@
+package com.petlytic.repositories.projections;
+
+import java.util.UUID;
+
+public interface CustomerHeader {
+    UUID getId();
+
+    String getFullName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    String getAddress();
+
+    String getAvatarUrl();
+}
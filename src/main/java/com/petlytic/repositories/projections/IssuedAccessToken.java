@@ -0,0 +1,9 @@
+package com.petlytic.repositories.projections;
+
+import java.time.LocalDateTime;
+
+public interface IssuedAccessToken {
+    String getAccessTokenId();
+
+    LocalDateTime getAccessTokenExpiresAt();
+}
@@ -0,0 +1,23 @@
+package com.petlytic.repositories.projections;
+
+import com.petlytic.models.enums.PetSpecies;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface PetSummary {
+    UUID getId();
+
+    String getName();
+
+    PetSpecies getSpecies();
+
+    String getBreed();
+
+    LocalDate getBirthDate();
+
+    Long getVisitCount();
+
+    LocalDateTime getLastVisitAt();
+}
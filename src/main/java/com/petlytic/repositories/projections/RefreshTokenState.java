@@ -0,0 +1,11 @@
+package com.petlytic.repositories.projections;
+
+import java.time.LocalDateTime;
+
+public interface RefreshTokenState {
+    String getToken();
+
+    Boolean getRevoked();
+
+    LocalDateTime getExpiresAt();
+}
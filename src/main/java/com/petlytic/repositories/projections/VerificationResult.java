@@ -0,0 +1,11 @@
+package com.petlytic.repositories.projections;
+
+import com.petlytic.models.enums.VerificationOutcome;
+
+import java.util.UUID;
+
+public interface VerificationResult {
+    VerificationOutcome getOutcome();
+
+    UUID getUserId();
+}
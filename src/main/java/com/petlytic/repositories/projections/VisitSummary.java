@@ -0,0 +1,18 @@
+package com.petlytic.repositories.projections;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface VisitSummary {
+    UUID getId();
+
+    UUID getPetId();
+
+    String getPetName();
+
+    String getClinicName();
+
+    LocalDateTime getVisitedAt();
+
+    String getReason();
+}
@@ -2,33 +2,54 @@ package com.petlytic.services;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import com.petlytic.cores.activity.ActivityTracker;
+import com.petlytic.cores.audit.AuditAction;
+import com.petlytic.cores.audit.AuditLog;
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationTopic;
+import com.petlytic.cores.resilience.DependencyGuard;
+import com.petlytic.cores.routing.ReplicaRouting;
 import com.petlytic.dtos.requests.*;
 import com.petlytic.dtos.responses.LoginResponse;
+import com.petlytic.exceptions.AuthException;
+import com.petlytic.exceptions.DependencyUnavailableException;
 import com.petlytic.exceptions.EmailAlreadyExistsException;
 import com.petlytic.exceptions.ResourceNotFoundException;
 import com.petlytic.models.RefreshToken;
 import com.petlytic.models.User;
 import com.petlytic.models.VerificationToken;
+import com.petlytic.models.enums.AuthErrorCode;
 import com.petlytic.models.enums.ResourceType;
 import com.petlytic.models.enums.Role;
+import com.petlytic.models.enums.VerificationOutcome;
 import com.petlytic.repositories.RefreshTokenRepository;
 import com.petlytic.repositories.UserRepository;
 import com.petlytic.repositories.VerificationTokenRepository;
+import com.petlytic.repositories.projections.IssuedAccessToken;
+import com.petlytic.repositories.projections.VerificationResult;
 import jakarta.mail.MessagingException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
+import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
@@ -36,70 +57,81 @@ public class AuthenticationService {
     private final VerificationTokenRepository verificationTokenRepository;
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final JwtService jwtService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final VerificationCodeService verificationCodeService;
+    private final AuditLog auditLog;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+    private final DependencyGuard googleGuard;
+    private final ReplicaRouting replicaRouting;
+    private final ActivityTracker activityTracker;
 
-    @Value("${spring.security.oauth2.client.registration.google.client-id}")
-    private String googleClientId;
+    @Value("${security.sessions.max-active:5}")
+    private int maxActiveSessions;
 
-    public LoginResponse loginWithGoogle(GoogleLoginDTO input) {
-        try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                    .setAudience(Collections.singletonList(googleClientId))
-                    .build();
+    private volatile String dummyPasswordHash;
 
-            GoogleIdToken idToken = verifier.verify(input.getIdToken());
-            if (idToken == null) {
-                throw new RuntimeException("Invalid Google ID Token");
-            }
+    public LoginResponse loginWithGoogle(GoogleLoginDTO input) {
+        GoogleIdToken.Payload payload = verifyGoogleIdToken(input.getIdToken());
+        String email = payload.getEmail();
+        String name = (String) payload.get("name");
+        String avatarUrl = (String) payload.get("picture");
 
-            GoogleIdToken.Payload payload = idToken.getPayload();
-            String email = payload.getEmail();
-            String name = (String) payload.get("name");
-            String avatarUrl = (String) payload.get("picture");
-
-            User user = userRepository.findByEmail(email).orElse(null);
-
-            if (user == null) {
-                user = User.builder()
-                        .username(name)
-                        .email(email)
-                        .password(null)
-                        .role(Role.CUSTOMER)
-                        .avatarUrl(avatarUrl)
-                        .active(true)
-                        .build();
-                user = userRepository.save(user);
-            } else {
-                if (!user.isEnabled()) {
-                    user.setActive(true);
-                    userRepository.save(user);
-                }
-            }
+        // Returning users are served from the cache; only new or inactive ones hit the upsert.
+        User user = userRepository.findByEmail(email)
+                .filter(User::isEnabled)
+                .orElseGet(() -> provisionGoogleUser(name, email, avatarUrl));
+        auditLog.record(AuditAction.GOOGLE_LOGIN, user.getId(), null);
 
-            String accessToken = jwtService.generateToken(user);
-            String refreshToken = jwtService.generateRefreshToken(user);
+        return startSession(user, input.getDevice());
+    }
 
-            revokeAllUserTokens(user);
-            saveUserRefreshToken(user, refreshToken);
+    private GoogleIdToken.Payload verifyGoogleIdToken(String idToken) {
+        GoogleIdToken token;
+        try {
+            token = GoogleIdToken.parse(googleIdTokenVerifier.getJsonFactory(), idToken);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Malformed Google ID token: {}", e.getMessage());
+            throw new AuthException(AuthErrorCode.INVALID_GOOGLE_TOKEN);
+        }
 
-            return LoginResponse.builder()
-                    .accessToken(accessToken)
-                    .refreshToken(refreshToken)
-                    .expiresIn(jwtService.getExpirationTime())
-                    .build();
+        // Only the verification may reach Google (to refresh its signing certs).
+        boolean verified;
+        try {
+            verified = googleGuard.execute(() -> {
+                try {
+                    return googleIdTokenVerifier.verify(token);
+                } catch (GeneralSecurityException e) {
+                    log.debug("Google ID token signature check failed: {}", e.getMessage());
+                    return false;
+                }
+            });
+        } catch (IOException e) {
+            // Google is unreachable or slow; that is not the client's fault.
+            throw new DependencyUnavailableException("google", e.getMessage(), 1);
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Google Login Failed: " + e.getMessage());
+        if (!verified) {
+            throw new AuthException(AuthErrorCode.INVALID_GOOGLE_TOKEN);
         }
+        return token.getPayload();
+    }
+
+    private User provisionGoogleUser(String name, String email, String avatarUrl) {
+        User user = userRepository.upsertGoogleUser(name, email, avatarUrl);
+        cacheInvalidationBus.publish(InvalidationTopic.USER, user.getId());
+        replicaRouting.recordWrite(email);
+        return user;
     }
 
     @Transactional
     public User signup(RegisterUserDTO input) {
-        if(userRepository.existsByEmail(input.getEmail())) {
+        if (userRepository.existsByEmail(input.getEmail())) {
             throw new EmailAlreadyExistsException("Email existed: " + input.getEmail());
         }
+        // The next login reads the user back; the replica may not have it yet.
+        replicaRouting.recordWrite(input.getEmail());
 
         User user = User.builder()
                 .username(input.getUsername())
@@ -109,7 +141,14 @@ public class AuthenticationService {
                 .active(false)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        if (verificationCodeService.isStateless()) {
+            user.setVerificationSentAt(verificationCodeService.issuedAt());
+            User savedUser = saveNewUser(user);
+            sendVerificationEmail(savedUser, verificationCodeService.codeFor(savedUser));
+            return savedUser;
+        }
+
+        User savedUser = saveNewUser(user);
         String code = generateVerificationCode();
         VerificationToken token = VerificationToken.builder()
                 .user(savedUser)
@@ -131,99 +170,236 @@ public class AuthenticationService {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, "email",  userEmail));
 
-        RefreshToken currentToken = refreshTokenRepository.findByToken(incomingRefreshToken)
-                .orElseThrow(() -> new RuntimeException("Refresh token not found"));
+        // Reuse detection needs the token's current state, not a replica's copy of it.
+        RefreshToken currentToken = replicaRouting.onPrimary(() -> refreshTokenRepository.findByRawToken(incomingRefreshToken))
+                .orElseThrow(() -> new AuthException(AuthErrorCode.REFRESH_TOKEN_NOT_FOUND));
 
         if (currentToken.isRevoked()) {
-            revokeAllUserTokens(user);
-            throw new RuntimeException("Refresh token was revoked. Please login again.");
+            auditLog.record(AuditAction.REFRESH_TOKEN_REUSE, user.getId(), null);
+            // Whoever replayed the token may also hold access tokens from the same chain.
+            revokeSession(user, currentToken.getFamilyId());
+            throw new AuthException(AuthErrorCode.REFRESH_TOKEN_REVOKED);
         }
 
         if (currentToken.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Refresh token expired");
+            throw new AuthException(AuthErrorCode.REFRESH_TOKEN_EXPIRED);
         }
 
         currentToken.setRevoked(true);
         refreshTokenRepository.save(currentToken);
+        auditLog.record(AuditAction.TOKEN_REFRESH, user.getId(), null);
 
-        String newAccessToken = jwtService.generateToken(user);
-        String newRefreshToken = jwtService.generateRefreshToken(user);
+        // Rows from before session families start one on their first rotation.
+        UUID familyId = currentToken.getFamilyId() != null ? currentToken.getFamilyId() : UUID.randomUUID();
+        return issueTokens(user, familyId, currentToken.getDeviceLabel());
+    }
 
-        saveUserRefreshToken(user, newRefreshToken);
+    /**
+     * Ends the session the access token belongs to: its refresh tokens are revoked and its
+     * unexpired access tokens stop working on every node. Other devices stay logged in.
+     */
+    @Transactional
+    public void logout(User user, String accessToken) {
+        jwtService.revokeAccessToken(accessToken);
+        String sessionId = jwtService.extractClaim(accessToken, claims -> claims.get(JwtService.SESSION_ID_CLAIM, String.class));
+        revokeSession(user, sessionId == null ? null : UUID.fromString(sessionId));
+    }
+
+    /**
+     * Opens a new session family for the device. An earlier session with the same client-supplied
+     * device id is replaced; nothing else identifies a device reliably (two phones can share a
+     * User-Agent), so without one the least recently refreshed sessions are evicted beyond
+     * {@code maxActiveSessions} instead.
+     */
+    private LoginResponse startSession(User user, String device) {
+        String deviceLabel = device == null || device.isBlank() ? null : device.strip();
+        if (deviceLabel != null && deviceLabel.length() > 100) {
+            deviceLabel = deviceLabel.substring(0, 100);
+        }
+
+        List<RefreshToken> active = refreshTokenRepository.findActiveSessionsByUser(user.getId(), LocalDateTime.now());
+        List<RefreshToken> ended = new ArrayList<>();
+        for (RefreshToken session : active) {
+            if (deviceLabel != null && deviceLabel.equals(session.getDeviceLabel())) {
+                ended.add(session);
+            }
+        }
+        int excess = active.size() - ended.size() + 1 - maxActiveSessions;
+        for (RefreshToken session : active) {
+            if (excess <= 0) {
+                break;
+            }
+            if (!ended.contains(session)) {
+                ended.add(session);
+                excess--;
+            }
+        }
+        if (!ended.isEmpty()) {
+            endSessions(user, ended);
+        }
+        activityTracker.recordLogin(user.getId());
+
+        return issueTokens(user, UUID.randomUUID(), deviceLabel);
+    }
+
+    private LoginResponse issueTokens(User user, UUID familyId, String deviceLabel) {
+        JwtService.IssuedToken accessToken = jwtService.issueAccessToken(Map.of(JwtService.SESSION_ID_CLAIM, familyId.toString()), user);
+        String refreshToken = jwtService.generateRefreshToken(user);
+
+        saveUserRefreshToken(user, refreshToken, accessToken, familyId, deviceLabel);
 
         return LoginResponse.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken)
+                .accessToken(accessToken.token())
+                .refreshToken(refreshToken)
                 .expiresIn(jwtService.getExpirationTime())
                 .build();
     }
 
-    private void saveUserRefreshToken(User user, String jwtToken) {
+    private void saveUserRefreshToken(User user, String jwtToken, JwtService.IssuedToken accessToken, UUID familyId, String deviceLabel) {
         long expirationInMillis = jwtService.getRefreshTokenExpiration();
 
         var token = RefreshToken.builder()
                 .user(user)
-                .token(jwtToken)
+                .token(RefreshToken.digest(jwtToken))
                 .revoked(false)
                 .expiresAt(LocalDateTime.now().plusNanos(expirationInMillis * 1_000_000))
+                .familyId(familyId)
+                .deviceLabel(deviceLabel)
+                .accessTokenId(accessToken.id())
+                .accessTokenExpiresAt(LocalDateTime.ofInstant(accessToken.expiresAt(), ZoneId.systemDefault()))
                 .build();
         refreshTokenRepository.save(token);
     }
 
-    private void revokeAllUserTokens(User user) {
-        var validUserTokens = refreshTokenRepository.findAllValidTokenByUser(user.getId());
-        if (validUserTokens.isEmpty()) return;
+    /**
+     * Revokes one session family and denies its unexpired access tokens. Tokens from before
+     * families have no family to scope this to, so all of the user's sessions end.
+     */
+    private void revokeSession(User user, UUID familyId) {
+        if (familyId == null) {
+            denyAccessTokens(refreshTokenRepository.findLiveAccessTokensByUser(user.getId(), LocalDateTime.now()));
+            revokeAllUserTokens(user);
+            return;
+        }
+        denyAccessTokens(refreshTokenRepository.findLiveAccessTokensByFamilyIn(List.of(familyId), LocalDateTime.now()));
+        int revoked = refreshTokenRepository.revokeFamily(familyId);
+        if (revoked > 0) {
+            auditLog.record(AuditAction.TOKENS_REVOKED, user.getId(), "family=" + familyId + " count=" + revoked);
+        }
+    }
 
-        validUserTokens.forEach(token -> {
-            token.setRevoked(true);
-        });
-        refreshTokenRepository.saveAll(validUserTokens);
+    /**
+     * Ends live sessions given by their unrevoked rows; revoking that row is enough, rotation
+     * has already revoked the rest of each family.
+     */
+    private void endSessions(User user, Collection<RefreshToken> sessions) {
+        List<UUID> familyIds = sessions.stream().map(RefreshToken::getFamilyId).filter(Objects::nonNull).toList();
+        if (!familyIds.isEmpty()) {
+            denyAccessTokens(refreshTokenRepository.findLiveAccessTokensByFamilyIn(familyIds, LocalDateTime.now()));
+        }
+        int revoked = refreshTokenRepository.revokeByIdIn(sessions.stream().map(RefreshToken::getId).toList());
+        if (revoked > 0) {
+            auditLog.record(AuditAction.TOKENS_REVOKED, user.getId(), "sessions=" + revoked);
+        }
     }
 
-    public LoginResponse authenticate(LoginUserDTO input) {
-        User user = userRepository.findByEmail(input.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, "email",  input.getEmail()));
+    private void denyAccessTokens(List<IssuedAccessToken> issued) {
+        for (IssuedAccessToken token : issued) {
+            jwtService.denyAccessToken(token.getAccessTokenId(),
+                    token.getAccessTokenExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
 
-        if (!user.isEnabled()) {
-            throw new RuntimeException("Account not verified. Please verify your account.");
+    private void revokeAllUserTokens(User user) {
+        int revoked = refreshTokenRepository.revokeAllValidTokensByUser(user.getId());
+        if (revoked > 0) {
+            auditLog.record(AuditAction.TOKENS_REVOKED, user.getId(), "count=" + revoked);
         }
+    }
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        input.getEmail(),
-                        input.getPassword()
-                )
-        );
+    @Transactional
+    public LoginResponse authenticate(LoginUserDTO input) {
+        User user = userRepository.findByEmail(input.getEmail()).orElse(null);
+
+        // Unknown emails and password-less accounts still pay for one hash check, so neither the
+        // answer nor its timing tells whether the email is registered.
+        String passwordHash = user == null || user.getPassword() == null ? dummyPasswordHash() : user.getPassword();
+        boolean matches = input.getPassword() != null && passwordEncoder.matches(input.getPassword(), passwordHash);
+        if (user == null || user.getPassword() == null || !matches) {
+            auditLog.record(AuditAction.LOGIN_FAILED, user == null ? null : user.getId(), AuthErrorCode.BAD_CREDENTIALS.name());
+            throw new AuthException(AuthErrorCode.BAD_CREDENTIALS);
+        }
 
-        String accessToken = jwtService.generateToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        // Only someone who knows the password learns that the account is not verified yet.
+        if (!user.isEnabled()) {
+            auditLog.record(AuditAction.LOGIN_FAILED, user.getId(), AuthErrorCode.ACCOUNT_NOT_VERIFIED.name());
+            throw new AuthException(AuthErrorCode.ACCOUNT_NOT_VERIFIED);
+        }
+        auditLog.record(AuditAction.LOGIN, user.getId(), null);
 
-        revokeAllUserTokens(user);
-        saveUserRefreshToken(user, refreshToken);
+        return startSession(user, input.getDevice());
+    }
 
-        return LoginResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .expiresIn(jwtService.getExpirationTime())
-                .build();
+    private String dummyPasswordHash() {
+        String hash = dummyPasswordHash;
+        if (hash == null) {
+            // Hashed with the configured encoder, so a check against it costs what a real one does.
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyPasswordHash = hash;
+        }
+        return hash;
     }
 
     @Transactional
     public void verifyUser(VerifyUserDTO input) {
-        User user = userRepository.findByEmail(input.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, "email",  input.getEmail()));
+        VerificationOutcome outcome = verificationCodeService.isStateless()
+                ? verifySignedCode(input)
+                : consumeVerificationToken(input);
+
+        switch (outcome) {
+            case VERIFIED -> replicaRouting.recordWrite(input.getEmail());
+            case USER_NOT_FOUND -> throw new ResourceNotFoundException(ResourceType.USER, "email",  input.getEmail());
+            case ALREADY_VERIFIED -> throw new AuthException(AuthErrorCode.ACCOUNT_ALREADY_VERIFIED);
+            case INVALID_CODE -> throw new AuthException(AuthErrorCode.INVALID_VERIFICATION_CODE);
+            case EXPIRED_CODE -> throw new AuthException(AuthErrorCode.EXPIRED_VERIFICATION_CODE);
+        }
+    }
 
-        VerificationToken token = verificationTokenRepository.findByUserAndVerificationCode(user, input.getVerificationCode())
-                .orElseThrow(() -> new RuntimeException("Invalid verification code"));
+    private VerificationOutcome consumeVerificationToken(VerifyUserDTO input) {
+        VerificationResult result = verificationTokenRepository.consumeVerificationCode(
+                input.getEmail(), input.getVerificationCode(), LocalDateTime.now());
 
-        if (token.getVerificationExpiration().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Verification code has expired");
+        if (result.getOutcome() == VerificationOutcome.VERIFIED) {
+            userRepository.evictFromCache(result.getUserId());
+            cacheInvalidationBus.publish(InvalidationTopic.USER, result.getUserId());
+            auditLog.record(AuditAction.VERIFY, result.getUserId(), null);
         }
+        return result.getOutcome();
+    }
 
-        user.setActive(true);
-        userRepository.save(user);
+    private VerificationOutcome verifySignedCode(VerifyUserDTO input) {
+        User user = userRepository.findByEmail(input.getEmail()).orElse(null);
+        if (user == null) {
+            return VerificationOutcome.USER_NOT_FOUND;
+        }
+        if (user.isEnabled()) {
+            return VerificationOutcome.ALREADY_VERIFIED;
+        }
+        if (!verificationCodeService.matches(user, input.getVerificationCode())) {
+            return VerificationOutcome.INVALID_CODE;
+        }
+        if (verificationCodeService.isExpired(user, LocalDateTime.now())) {
+            return VerificationOutcome.EXPIRED_CODE;
+        }
 
-        verificationTokenRepository.delete(token);
+        // Activation plus a new nonce makes the code single-use; whoever changes the row first wins.
+        if (userRepository.activateWithNonce(user.getId(), user.getVerificationNonce(), LocalDateTime.now()) == 0) {
+            return VerificationOutcome.INVALID_CODE;
+        }
+        userRepository.evictFromCache(user.getId());
+        cacheInvalidationBus.publish(InvalidationTopic.USER, user.getId());
+        auditLog.record(AuditAction.VERIFY, user.getId(), null);
+        return VerificationOutcome.VERIFIED;
     }
 
     @Transactional
@@ -232,7 +408,23 @@ public class AuthenticationService {
                 .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, "email",  email));
 
         if (user.isEnabled()) {
-            throw new RuntimeException("Account is already verified");
+            throw new AuthException(AuthErrorCode.ACCOUNT_ALREADY_VERIFIED);
+        }
+
+        if (verificationCodeService.isStateless()) {
+            if (!verificationCodeService.canResend(user, LocalDateTime.now())) {
+                throw new AuthException(AuthErrorCode.RESEND_TOO_SOON);
+            }
+            int nonce = user.getVerificationNonce();
+            LocalDateTime sentAt = verificationCodeService.issuedAt();
+            if (userRepository.reissueWithNonce(user.getId(), nonce, sentAt, LocalDateTime.now()) == 0) {
+                // A concurrent resend or verification got there first.
+                throw new AuthException(AuthErrorCode.RESEND_TOO_SOON);
+            }
+            userRepository.evictFromCache(user.getId());
+            cacheInvalidationBus.publish(InvalidationTopic.USER, user.getId());
+            sendVerificationEmail(user, verificationCodeService.codeFor(user.getId(), sentAt, nonce + 1));
+            return;
         }
 
         verificationTokenRepository.deleteAllByUser(user);
@@ -249,29 +441,30 @@ public class AuthenticationService {
     }
 
     private void sendVerificationEmail(User user, String verificationCode) {
-        String subject = "Account Verification";
-
-        String htmlMessage = "<html>"
-                + "<body style=\"font-family: Arial, sans-serif;\">"
-                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
-                + "<h2 style=\"color: #333;\">Welcome to our app!</h2>"
-                + "<p style=\"font-size: 16px;\">Please enter the verification code below to continue:</p>"
-                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
-                + "<h3 style=\"color: #333;\">Verification Code:</h3>"
-                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
-                + "</div>"
-                + "</div>"
-                + "</body>"
-                + "</html>";
-
         try {
-            emailService.sendVerificationEmail(user.getEmail(), subject, htmlMessage);
+            emailService.sendVerificationCode(user.getEmail(), verificationCode);
         } catch (MessagingException e) {
             // Handle email sending exception
             e.printStackTrace();
         }
     }
 
+    /**
+     * Inserts a signup; a concurrent signup with the same email that passed the check first
+     * surfaces as the email's unique constraint.
+     */
+    private User saveNewUser(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && User.EMAIL_UNIQUE_CONSTRAINT.equals(violation.getConstraintName())) {
+                throw new EmailAlreadyExistsException("Email existed: " + user.getEmail());
+            }
+            throw e;
+        }
+    }
+
     private String generateVerificationCode() {
         Random random = new Random();
         int code = random.nextInt(900000) + 100000;
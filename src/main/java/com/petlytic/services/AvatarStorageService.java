@@ -0,0 +1,392 @@
+package com.petlytic.services;
+
+import com.petlytic.exceptions.InvalidUploadException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed avatar store on the local disk. Originals live under
+ * {@code originals/<aa>/<sha256>.<ext>} and are never rewritten, so a file name doubles as a
+ * strong ETag. Thumbnails are generated once per size into a disk cache bounded by
+ * {@code avatars.thumbnails.max-bytes}, evicting the least recently served first.
+ */
+@Slf4j
+@Service
+public class AvatarStorageService {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int SNIFF_BYTES = 8;
+
+    private final Path root;
+    private final long maxUploadBytes;
+    private final int maxDimension;
+    private final long maxThumbnailBytes;
+    private final Set<Integer> thumbnailSizes;
+    private final ExecutorService thumbnailPool;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    // Access-ordered: iteration starts at the least recently served thumbnail.
+    private final LinkedHashMap<Path, Long> thumbnails = new LinkedHashMap<>(256, 0.75f, true);
+    private long thumbnailBytes;
+
+    public AvatarStorageService(
+            @Value("${avatars.storage.path:data/avatars}") Path root,
+            @Value("${avatars.max-upload-bytes:5242880}") long maxUploadBytes,
+            @Value("${avatars.max-dimension:4096}") int maxDimension,
+            @Value("${avatars.thumbnails.max-bytes:268435456}") long maxThumbnailBytes,
+            @Value("${avatars.thumbnails.sizes:64,128,256}") Set<Integer> thumbnailSizes,
+            @Value("${avatars.thumbnails.threads:2}") int thumbnailThreads
+    ) {
+        this.root = root.toAbsolutePath().normalize();
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxDimension = maxDimension;
+        this.maxThumbnailBytes = maxThumbnailBytes;
+        this.thumbnailSizes = Set.copyOf(thumbnailSizes);
+        this.thumbnailPool = Executors.newFixedThreadPool(thumbnailThreads, r -> {
+            Thread thread = new Thread(r, "avatar-thumbnails");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public enum ImageType {
+        PNG("png", "image/png"),
+        JPEG("jpg", "image/jpeg"),
+        GIF("gif", "image/gif");
+
+        private final String extension;
+        private final String contentType;
+
+        ImageType(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        static ImageType fromExtension(String extension) {
+            for (ImageType type : values()) {
+                if (type.extension.equals(extension)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        static ImageType sniff(byte[] head, int length) {
+            if (length >= 8 && head[0] == (byte) 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+                return PNG;
+            }
+            if (length >= 3 && head[0] == (byte) 0xFF && head[1] == (byte) 0xD8 && head[2] == (byte) 0xFF) {
+                return JPEG;
+            }
+            if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+                return GIF;
+            }
+            return null;
+        }
+    }
+
+    public record StoredFile(Path path, ImageType type) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(root.resolve("tmp"));
+        Path thumbnailRoot = root.resolve("thumbnails");
+        if (Files.isDirectory(thumbnailRoot)) {
+            try (Stream<Path> files = Files.walk(thumbnailRoot)) {
+                files.filter(Files::isRegularFile)
+                        .sorted((a, b) -> Long.compare(lastModified(a), lastModified(b)))
+                        .forEach(path -> track(path, size(path)));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        thumbnailPool.shutdown();
+    }
+
+    /**
+     * Streams the upload to disk while hashing it; nothing beyond a small buffer is held in
+     * memory. Returns the public name ({@code <sha256>.<ext>}) of the stored original.
+     */
+    public String store(InputStream in) throws IOException {
+        // Checked before anything touches the disk, so non-images cost one small read.
+        byte[] head = new byte[SNIFF_BYTES];
+        int headLength = in.readNBytes(head, 0, SNIFF_BYTES);
+        ImageType type = ImageType.sniff(head, headLength);
+        if (type == null) {
+            throw new InvalidUploadException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Avatar must be a PNG, JPEG or GIF image");
+        }
+
+        Path temp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(head, 0, headLength);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = headLength;
+
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(head, 0, headLength);
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxUploadBytes) {
+                        throw new InvalidUploadException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Avatar must not exceed " + maxUploadBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            checkDimensions(temp);
+
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + type.extension;
+            Path target = originalPath(name);
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(temp, target);
+            return name;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * The original, or a thumbnail when {@code size} is given; generated on first request.
+     */
+    public StoredFile resolve(String name, Integer size) {
+        CompletableFuture<StoredFile> file = resolveAsync(name, size);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return file.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    /**
+     * Like {@link #resolve}, without blocking the caller on thumbnail generation: the future is
+     * already complete for originals and cached thumbnails. Null when the original does not exist.
+     */
+    public CompletableFuture<StoredFile> resolveAsync(String name, Integer size) {
+        checkThumbnailSize(size);
+        Path original = originalPath(name);
+        if (!Files.isRegularFile(original)) {
+            return null;
+        }
+        ImageType originalType = ImageType.fromExtension(name.substring(name.lastIndexOf('.') + 1));
+        if (size == null) {
+            return CompletableFuture.completedFuture(new StoredFile(original, originalType));
+        }
+
+        ImageType thumbnailType = originalType == ImageType.JPEG ? ImageType.JPEG : ImageType.PNG;
+        String hash = name.substring(0, name.lastIndexOf('.'));
+        Path thumbnail = root.resolve("thumbnails").resolve(String.valueOf(size)).resolve(hash + "." + thumbnailType.extension);
+
+        synchronized (thumbnails) {
+            if (thumbnails.get(thumbnail) != null && Files.isRegularFile(thumbnail)) {
+                return CompletableFuture.completedFuture(new StoredFile(thumbnail, thumbnailType));
+            }
+        }
+
+        // Concurrent requests for the same thumbnail share one generation.
+        String key = thumbnail.toString();
+        CompletableFuture<Path> generation = inFlight.computeIfAbsent(key, ignored ->
+                CompletableFuture.supplyAsync(() -> generate(original, thumbnail, thumbnailType, size), thumbnailPool));
+        // Not inside computeIfAbsent: a generation that already finished would remove its own key there.
+        generation.whenComplete((path, error) -> inFlight.remove(key, generation));
+        return generation.thenApply(path -> new StoredFile(path, thumbnailType));
+    }
+
+    /**
+     * Rejects thumbnail sizes outside {@code avatars.thumbnails.sizes}; null means the original.
+     */
+    public void checkThumbnailSize(Integer size) {
+        if (size != null && !thumbnailSizes.contains(size)) {
+            throw new InvalidUploadException(HttpStatus.BAD_REQUEST, "Supported thumbnail sizes: "
+                    + thumbnailSizes.stream().sorted().map(String::valueOf).collect(Collectors.joining(", ")));
+        }
+    }
+
+    private Path generate(Path original, Path thumbnail, ImageType type, int size) {
+        try {
+            if (!Files.isRegularFile(thumbnail)) {
+                BufferedImage source = readSubsampled(original, size);
+                BufferedImage scaled = scale(source, size, type == ImageType.PNG);
+
+                Files.createDirectories(thumbnail.getParent());
+                Path temp = Files.createTempFile(root.resolve("tmp"), "thumb-", ".part");
+                try {
+                    ImageIO.write(scaled, type == ImageType.JPEG ? "jpeg" : "png", temp.toFile());
+                    moveIntoPlace(temp, thumbnail);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            track(thumbnail, size(thumbnail));
+            evictThumbnails();
+            return thumbnail;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes every n-th pixel when the source is much larger than the target, so a large
+     * upload never becomes a full-resolution bitmap on the heap.
+     */
+    private BufferedImage readSubsampled(Path original, int size) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            ImageReader reader = firstReader(input);
+            try {
+                reader.setInput(input, true, true);
+                int smallest = Math.min(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, smallest / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        // Center-crop to a square, then scale.
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+
+        BufferedImage target = new BufferedImage(size, size, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void checkDimensions(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = firstReader(input);
+            try {
+                reader.setInput(input, true, true);
+                if (reader.getWidth(0) > maxDimension || reader.getHeight(0) > maxDimension) {
+                    throw new InvalidUploadException(HttpStatus.BAD_REQUEST,
+                            "Avatar must not exceed " + maxDimension + "x" + maxDimension + " pixels");
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new InvalidUploadException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Avatar image could not be read");
+        }
+    }
+
+    private static ImageReader firstReader(ImageInputStream input) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (input == null || !readers.hasNext()) {
+            throw new IOException("No image reader available");
+        }
+        return readers.next();
+    }
+
+    private void track(Path thumbnail, long bytes) {
+        synchronized (thumbnails) {
+            Long previous = thumbnails.put(thumbnail, bytes);
+            thumbnailBytes += bytes - (previous == null ? 0 : previous);
+        }
+    }
+
+    private void evictThumbnails() {
+        synchronized (thumbnails) {
+            Iterator<Map.Entry<Path, Long>> entries = thumbnails.entrySet().iterator();
+            // The most recent entry is the thumbnail about to be served; never evict it.
+            while (thumbnailBytes > maxThumbnailBytes && thumbnails.size() > 1 && entries.hasNext()) {
+                Map.Entry<Path, Long> eldest = entries.next();
+                try {
+                    Files.deleteIfExists(eldest.getKey());
+                } catch (IOException e) {
+                    log.warn("Could not evict thumbnail {}: {}", eldest.getKey(), e.getMessage());
+                    continue;
+                }
+                thumbnailBytes -= eldest.getValue();
+                entries.remove();
+            }
+        }
+    }
+
+    private Path originalPath(String name) {
+        return root.resolve("originals").resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same content already stored.
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.petlytic.services;
+
+import com.petlytic.dtos.requests.CreatePetDTO;
+import com.petlytic.dtos.requests.UpdateCustomerDTO;
+import com.petlytic.dtos.responses.CustomerProfileResponse;
+import com.petlytic.exceptions.ResourceNotFoundException;
+import com.petlytic.models.Customer;
+import com.petlytic.models.Pet;
+import com.petlytic.models.User;
+import com.petlytic.models.enums.ResourceType;
+import com.petlytic.repositories.CustomerRepository;
+import com.petlytic.repositories.PetRepository;
+import com.petlytic.repositories.UserRepository;
+import com.petlytic.repositories.projections.CustomerHeader;
+import com.petlytic.repositories.projections.PetSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class CustomerService {
+    private final CustomerRepository customerRepository;
+    private final UserRepository userRepository;
+    private final PetRepository petRepository;
+
+    @Value("${customers.profile.recent-visits:10}")
+    private int recentVisits;
+
+    @Transactional(readOnly = true)
+    public CustomerProfileResponse getProfile(User user) {
+        CustomerHeader header = customerRepository.findHeaderByUserId(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.CUSTOMER, "user", user.getEmail()));
+
+        return CustomerProfileResponse.builder()
+                .customer(header)
+                .pets(customerRepository.findPetSummaries(header.getId()))
+                .clinics(customerRepository.findClinicSummaries(header.getId()))
+                .recentVisits(customerRepository.findRecentVisits(header.getId(), Limit.of(recentVisits)))
+                .build();
+    }
+
+    @Transactional
+    public CustomerProfileResponse updateProfile(User user, UpdateCustomerDTO input) {
+        Customer customer = customerRepository.findByUserId(user.getId())
+                .orElseGet(() -> Customer.builder().user(userRepository.getReferenceById(user.getId())).build());
+
+        customer.setFullName(input.getFullName());
+        customer.setPhoneNumber(input.getPhoneNumber());
+        customer.setAddress(input.getAddress());
+        customerRepository.save(customer);
+
+        return getProfile(user);
+    }
+
+    @Transactional
+    public List<PetSummary> addPet(User user, CreatePetDTO input) {
+        UUID customerId = customerRepository.findIdByUserId(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.CUSTOMER, "user", user.getEmail()));
+
+        // Appending needs no other pets loaded; the summaries query flushes the insert.
+        petRepository.save(Pet.builder()
+                .customer(customerRepository.getReferenceById(customerId))
+                .name(input.getName())
+                .species(input.getSpecies())
+                .breed(input.getBreed())
+                .birthDate(input.getBirthDate())
+                .build());
+
+        return customerRepository.findPetSummaries(customerId);
+    }
+}
@@ -1,5 +1,6 @@
 package com.petlytic.services;
 
+import com.petlytic.cores.resilience.DependencyGuard;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,28 @@ public class EmailService {
     @Autowired
     private JavaMailSender emailSender;
 
+    @Autowired
+    private DependencyGuard smtpGuard;
+
+    public void sendVerificationCode(String to, String verificationCode) throws MessagingException {
+        String subject = "Account Verification";
+
+        String htmlMessage = "<html>"
+                + "<body style=\"font-family: Arial, sans-serif;\">"
+                + "<div style=\"background-color: #f5f5f5; padding: 20px;\">"
+                + "<h2 style=\"color: #333;\">Welcome to our app!</h2>"
+                + "<p style=\"font-size: 16px;\">Please enter the verification code below to continue:</p>"
+                + "<div style=\"background-color: #fff; padding: 20px; border-radius: 5px; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">"
+                + "<h3 style=\"color: #333;\">Verification Code:</h3>"
+                + "<p style=\"font-size: 18px; font-weight: bold; color: #007bff;\">" + verificationCode + "</p>"
+                + "</div>"
+                + "</div>"
+                + "</body>"
+                + "</html>";
+
+        sendVerificationEmail(to, subject, htmlMessage);
+    }
+
     public void sendVerificationEmail(String to, String subject, String text) throws MessagingException {
         MimeMessage message = emailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
@@ -20,6 +43,9 @@ public class EmailService {
         helper.setSubject(subject);
         helper.setText(text, true);
 
-        emailSender.send(message);
+        smtpGuard.execute(() -> {
+            emailSender.send(message);
+            return null;
+        });
     }
 }
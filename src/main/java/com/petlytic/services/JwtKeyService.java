@@ -0,0 +1,276 @@
+package com.petlytic.services;
+
+import com.petlytic.cores.routing.ReplicaRouting;
+import com.petlytic.models.JwtSigningKey;
+import com.petlytic.repositories.JwtSigningKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Manages the ES256 key pairs used to sign JWTs. Keys live in {@code jwt_signing_keys}
+ * so every node signs and verifies with the same set; a new key is created ahead of
+ * time and published in the JWKS before any node starts signing with it.
+ */
+@Slf4j
+@Service
+public class JwtKeyService implements SmartLifecycle {
+    public static final String ALGORITHM = "ES256";
+
+    private static final long ROTATION_LOCK_ID = 0x4a574b53L;
+    private static final int IV_LENGTH = 12;
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReplicaRouting replicaRouting;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile List<LoadedKey> keys = List.of();
+    private volatile long lastReload;
+    private volatile boolean running;
+
+    @Value("${security.jwt.secret-key}")
+    private String secretKey;
+
+    @Value("${security.jwt.refresh-token.expiration-time}")
+    private long refreshExpiration;
+
+    @Value("${security.jwt.keys.rotation-interval}")
+    private long rotationInterval;
+
+    @Value("${security.jwt.keys.publish-ahead}")
+    private long publishAhead;
+
+    @Value("${security.jwt.keys.min-reload-interval:5000}")
+    private long minReloadInterval;
+
+    public JwtKeyService(JwtSigningKeyRepository jwtSigningKeyRepository, TransactionTemplate transactionTemplate, ReplicaRouting replicaRouting) {
+        this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.replicaRouting = replicaRouting;
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    private record LoadedKey(String kid, PrivateKey privateKey, ECPublicKey publicKey, LocalDateTime activatesAt) {
+    }
+
+    /**
+     * Keys are loaded when the context starts rather than in {@code @PostConstruct}, so the
+     * context can be refreshed without a database (AOT processing, the CDS training run).
+     * Phase 0 starts before the web server accepts requests.
+     */
+    @Override
+    public void start() {
+        refresh();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.keys.refresh-interval}")
+    public void refresh() {
+        rotateIfDue();
+        reload();
+    }
+
+    /**
+     * Newest key that is already active; keys are published before they activate.
+     */
+    public SigningKey currentSigningKey() {
+        LocalDateTime now = LocalDateTime.now();
+        for (LoadedKey key : keys) {
+            if (!key.activatesAt().isAfter(now)) {
+                return new SigningKey(key.kid(), key.privateKey());
+            }
+        }
+        throw new IllegalStateException("No active JWT signing key");
+    }
+
+    public ECPublicKey findVerificationKey(String kid) {
+        ECPublicKey key = lookup(kid);
+        if (key == null && System.currentTimeMillis() - lastReload > minReloadInterval) {
+            // Another node may have created a key we have not loaded yet.
+            reload();
+            key = lookup(kid);
+        }
+        return key;
+    }
+
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (LoadedKey key : keys) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("kid", key.kid());
+            jwk.put("use", "sig");
+            jwk.put("alg", ALGORITHM);
+            jwk.put("x", base64Url(key.publicKey().getW().getAffineX()));
+            jwk.put("y", base64Url(key.publicKey().getW().getAffineY()));
+            jwks.add(jwk);
+        }
+        return Map.of("keys", jwks);
+    }
+
+    private ECPublicKey lookup(String kid) {
+        for (LoadedKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key.publicKey();
+            }
+        }
+        return null;
+    }
+
+    private void rotateIfDue() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!jwtSigningKeyRepository.tryAdvisoryLock(ROTATION_LOCK_ID)) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            jwtSigningKeyRepository.deleteExpired(now);
+            List<JwtSigningKey> existing = jwtSigningKeyRepository.findAllByExpiresAtAfterOrderByActivatesAtDesc(now);
+
+            LocalDateTime activatesAt;
+            if (existing.isEmpty()) {
+                activatesAt = now;
+            } else {
+                JwtSigningKey newest = existing.get(0);
+                LocalDateTime due = newest.getActivatesAt().plusNanos(millisToNanos(rotationInterval));
+                if (due.minusNanos(millisToNanos(publishAhead)).isAfter(now)) {
+                    return;
+                }
+                LocalDateTime earliest = now.plusNanos(millisToNanos(publishAhead));
+                activatesAt = due.isAfter(earliest) ? due : earliest;
+
+                // The newest key keeps signing until the new one activates.
+                LocalDateTime lastValid = activatesAt.plusNanos(millisToNanos(refreshExpiration));
+                if (newest.getExpiresAt().isBefore(lastValid)) {
+                    newest.setExpiresAt(lastValid);
+                }
+            }
+
+            jwtSigningKeyRepository.save(generate(now, activatesAt));
+            log.info("Created JWT signing key activating at {}", activatesAt);
+        });
+    }
+
+    private void reload() {
+        List<LoadedKey> loaded = new ArrayList<>();
+        // A key another node just created must be found on the first reload, not after replica lag.
+        List<JwtSigningKey> stored = replicaRouting.onPrimary(
+                () -> jwtSigningKeyRepository.findAllByExpiresAtAfterOrderByActivatesAtDesc(LocalDateTime.now()));
+        for (JwtSigningKey key : stored) {
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance("EC");
+                ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+                PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getEncryptedPrivateKey())));
+                loaded.add(new LoadedKey(key.getKid(), privateKey, publicKey, key.getActivatesAt()));
+            } catch (GeneralSecurityException e) {
+                log.error("Could not load JWT signing key {}: {}", key.getKid(), e.getMessage());
+            }
+        }
+        keys = List.copyOf(loaded);
+        lastReload = System.currentTimeMillis();
+    }
+
+    private JwtSigningKey generate(LocalDateTime now, LocalDateTime activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"), secureRandom);
+            KeyPair keyPair = generator.generateKeyPair();
+
+            return JwtSigningKey.builder()
+                    .kid(UUID.randomUUID().toString())
+                    .algorithm(ALGORITHM)
+                    .publicKey(keyPair.getPublic().getEncoded())
+                    .encryptedPrivateKey(encrypt(keyPair.getPrivate().getEncoded()))
+                    .createdAt(now)
+                    .activatesAt(activatesAt)
+                    .expiresAt(activatesAt.plusNanos(millisToNanos(rotationInterval + refreshExpiration)))
+                    .build();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate JWT signing key", e);
+        }
+    }
+
+    private byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey(), new GCMParameterSpec(128, iv));
+        byte[] encrypted = cipher.doFinal(plain);
+        return ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+    }
+
+    private byte[] decrypt(byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey(), new GCMParameterSpec(128, stored, 0, IV_LENGTH));
+        return cipher.doFinal(stored, IV_LENGTH, stored.length - IV_LENGTH);
+    }
+
+    private SecretKeySpec encryptionKey() throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update("petlytic-jwt-signing-key".getBytes(StandardCharsets.UTF_8));
+        digest.update(secretKey.getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(digest.digest(), "AES");
+    }
+
+    private static String base64Url(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[32];
+        if (bytes.length > 32) {
+            bytes = Arrays.copyOfRange(bytes, bytes.length - 32, bytes.length);
+        }
+        System.arraycopy(bytes, 0, fixed, 32 - bytes.length, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static long millisToNanos(long millis) {
+        return millis * 1_000_000;
+    }
+}
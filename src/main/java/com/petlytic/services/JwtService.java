@@ -1,35 +1,119 @@
 package com.petlytic.services;
 
+import com.petlytic.cores.denylist.TokenDenylist;
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationTopic;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
+@Slf4j
 @Service
 public class JwtService {
+    /**
+     * Access-token claim naming the refresh-token family (session) it was issued for.
+     */
+    public static final String SESSION_ID_CLAIM = "sid";
+
+    /**
+     * Claim telling access and refresh tokens apart: {@link #ACCESS_TOKEN_TYPE} or
+     * {@link #REFRESH_TOKEN_TYPE}.
+     */
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private final JwtKeyService jwtKeyService;
+    private final TokenDenylist tokenDenylist;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final JwtParser parser;
+    private final Counter legacyTokens;
+    private final AtomicBoolean legacyTokenLogged = new AtomicBoolean();
+
     @Value("${security.jwt.secret-key}")
     private String secretKey;
 
+    @Value("${security.jwt.legacy-hs256-enabled:false}")
+    private boolean legacyHs256Enabled;
+
+    @Value("${security.jwt.legacy-hs256-until:}")
+    private String legacyHs256UntilValue;
+
+    private Instant legacyHs256Until;
+
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
     @Value("${security.jwt.refresh-token.expiration-time}")
     private long refreshExpiration;
 
+    public JwtService(
+            JwtKeyService jwtKeyService,
+            TokenDenylist tokenDenylist,
+            CacheInvalidationBus cacheInvalidationBus,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwtKeyService = jwtKeyService;
+        this.tokenDenylist = tokenDenylist;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.legacyTokens = Counter.builder("security.jwt.legacy.accepted")
+                .description("Legacy HS256 tokens accepted during the cut-over window")
+                .register(meterRegistry);
+        this.parser = Jwts
+                .parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    @PostConstruct
+    void checkLegacySettings() {
+        if (!legacyHs256Enabled) {
+            return;
+        }
+        // Anyone holding the old shared secret can mint HS256 tokens, so acceptance must end.
+        if (legacyHs256UntilValue.isBlank()) {
+            throw new IllegalStateException("security.jwt.legacy-hs256-until must be set when legacy HS256 tokens are enabled");
+        }
+        legacyHs256Until = Instant.parse(legacyHs256UntilValue);
+        log.warn("Accepting legacy HS256 tokens until {}", legacyHs256Until);
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
+    public String extractTokenId(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -40,55 +124,136 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return issueAccessToken(extraClaims, userDetails).token();
+    }
+
+    /**
+     * Like {@link #generateToken(Map, UserDetails)}, also returning the claims the caller needs
+     * to revoke the token later, so it does not have to parse what it just signed.
+     */
+    public IssuedToken issueAccessToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        return buildToken(extraClaims, userDetails, ACCESS_TOKEN_TYPE, jwtExpiration);
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(new HashMap<>(), userDetails, REFRESH_TOKEN_TYPE, refreshExpiration).token();
+    }
+
+    /**
+     * The token's {@code typ}. Tokens issued before the claim are told apart by their lifetime,
+     * since only refresh tokens outlive the access-token expiration.
+     */
+    public String tokenType(Claims claims) {
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        if (type != null) {
+            return type;
+        }
+        if (claims.getIssuedAt() != null && claims.getExpiration() != null
+                && claims.getExpiration().getTime() - claims.getIssuedAt().getTime() > jwtExpiration) {
+            return REFRESH_TOKEN_TYPE;
+        }
+        return ACCESS_TOKEN_TYPE;
     }
 
     public long getExpirationTime() {
         return jwtExpiration;
     }
 
-    private String buildToken(
+    private IssuedToken buildToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails,
+            String type,
             long expiration
     ) {
-        return Jwts
+        JwtKeyService.SigningKey signingKey = jwtKeyService.currentSigningKey();
+        String id = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        Date expiresAt = new Date(now + expiration);
+        String token = Jwts
                 .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setClaims(extraClaims)
+                .claim(TOKEN_TYPE_CLAIM, type)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setId(id)
+                .setIssuedAt(new Date(now))
+                .setExpiration(expiresAt)
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
+        // exp is serialized in whole seconds.
+        return new IssuedToken(token, id, Instant.ofEpochSecond(expiresAt.getTime() / 1000));
+    }
+
+    /**
+     * A freshly signed token with its {@code jti} and {@code exp}.
+     */
+    public record IssuedToken(String token, String id, Instant expiresAt) {
     }
 
+    /**
+     * Tokens without a {@code jti} (legacy HS256 ones) are refused: they could not be revoked.
+     * Legacy refresh tokens still work for a refresh, which is checked against its stored row.
+     */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        // A refresh token is not a bearer credential.
+        return ACCESS_TOKEN_TYPE.equals(tokenType(claims))
+                && claims.getId() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date())
+                && !tokenDenylist.isDenied(claims.getId());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Rejects the access token on every node until it expires, e.g. on logout.
+     */
+    public void revokeAccessToken(String token) {
+        final Claims claims = extractAllClaims(token);
+        denyAccessToken(claims.getId(), claims.getExpiration().getTime());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Denies the access token with this {@code jti} until {@code expiresAt} (epoch millis): here
+     * at once, on the other nodes once the surrounding transaction commits.
+     */
+    public void denyAccessToken(String jti, long expiresAt) {
+        if (jti == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        tokenDenylist.deny(jti, expiresAt);
+        cacheInvalidationBus.publish(InvalidationTopic.ACCESS_TOKEN, jti + "@" + expiresAt);
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        if (jws.getHeader().getKeyId() == null) {
+            // Every request of a client holding one lands here; count them and log the first only.
+            legacyTokens.increment();
+            if (legacyTokenLogged.compareAndSet(false, true)) {
+                log.warn("Accepted a legacy HS256 token for {}; see security.jwt.legacy.accepted for more", jws.getBody().getSubject());
+            } else {
+                log.debug("Accepted a legacy HS256 token for {}", jws.getBody().getSubject());
+            }
+        }
+        return jws.getBody();
+    }
+
+    private Key resolveVerificationKey(String kid) {
+        if (kid == null) {
+            // Tokens issued before the switch to ES256 carry no kid.
+            if (!legacyHs256Enabled || Instant.now().isAfter(legacyHs256Until)) {
+                throw new UnsupportedJwtException("Token has no key id");
+            }
+            return getLegacySignInKey();
+        }
+        Key key = jwtKeyService.findVerificationKey(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key: " + kid);
+        }
+        return key;
     }
 
-    private Key getSignInKey() {
+    private Key getLegacySignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
     }
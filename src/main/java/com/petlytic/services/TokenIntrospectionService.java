@@ -0,0 +1,138 @@
+package com.petlytic.services;
+
+import com.petlytic.cores.denylist.TokenDenylist;
+import com.petlytic.dtos.responses.TokenIntrospection;
+import com.petlytic.models.RefreshToken;
+import com.petlytic.repositories.RefreshTokenRepository;
+import com.petlytic.repositories.projections.RefreshTokenState;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+@Service
+@Lazy
+public class TokenIntrospectionService {
+    private final JwtService jwtService;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenDenylist tokenDenylist;
+    private final ExecutorService verifier;
+
+    @Value("${security.introspection.parallel-threshold:16}")
+    private int parallelThreshold;
+
+    public TokenIntrospectionService(
+            JwtService jwtService,
+            RefreshTokenRepository refreshTokenRepository,
+            TokenDenylist tokenDenylist,
+            @Value("${security.introspection.threads:0}") int threads
+    ) {
+        this.jwtService = jwtService;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenDenylist = tokenDenylist;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.verifier = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "token-introspection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifier.shutdown();
+    }
+
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        List<Verification> verifications = verify(tokens);
+
+        // One set-based lookup covers digests and the raw values of legacy rows; only refresh tokens have rows.
+        Set<String> lookupKeys = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Claims claims = verifications.get(i).claims();
+            if (claims != null && JwtService.REFRESH_TOKEN_TYPE.equals(jwtService.tokenType(claims))) {
+                lookupKeys.add(RefreshToken.digest(tokens.get(i)));
+                lookupKeys.add(tokens.get(i));
+            }
+        }
+        Map<String, RefreshTokenState> states = new HashMap<>();
+        if (!lookupKeys.isEmpty()) {
+            refreshTokenRepository.findStatesByTokenIn(lookupKeys)
+                    .forEach(state -> states.put(state.getToken(), state));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Verification verification = verifications.get(i);
+            Claims claims = verification.claims();
+            if (claims == null) {
+                results.add(TokenIntrospection.builder().active(false).reason("invalid").build());
+                continue;
+            }
+
+            TokenIntrospection.TokenIntrospectionBuilder result = TokenIntrospection.builder()
+                    .subject(claims.getSubject())
+                    .expiresAt(claims.getExpiration() == null ? null : claims.getExpiration().getTime() / 1000);
+
+            RefreshTokenState state = states.get(RefreshToken.digest(tokens.get(i)));
+            if (state == null) {
+                state = states.get(tokens.get(i));
+            }
+            boolean refresh = JwtService.REFRESH_TOKEN_TYPE.equals(jwtService.tokenType(claims));
+            result.tokenType(refresh ? JwtService.REFRESH_TOKEN_TYPE : JwtService.ACCESS_TOKEN_TYPE);
+
+            if (verification.expired() || (state != null && state.getExpiresAt().isBefore(now))) {
+                result.active(false).reason("expired");
+            } else if (!refresh && claims.getId() == null) {
+                // Without a jti it cannot be revoked, so the filter refuses it as well.
+                result.active(false).reason("invalid");
+            } else if (refresh ? state == null || Boolean.TRUE.equals(state.getRevoked()) : tokenDenylist.isDenied(claims.getId())) {
+                // A refresh token without a stored row was never issued or has been deleted.
+                result.active(false).reason("revoked");
+            } else {
+                result.active(true);
+            }
+            results.add(result.build());
+        }
+        return results;
+    }
+
+    private List<Verification> verify(List<String> tokens) {
+        if (tokens.size() < parallelThreshold) {
+            return tokens.stream().map(this::verify).toList();
+        }
+        List<CompletableFuture<Verification>> futures = tokens.stream()
+                .map(token -> CompletableFuture.supplyAsync(() -> verify(token), verifier))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private Verification verify(String token) {
+        try {
+            return new Verification(jwtService.extractClaim(token, Function.identity()), false);
+        } catch (ExpiredJwtException e) {
+            return new Verification(e.getClaims(), true);
+        } catch (JwtException | IllegalArgumentException e) {
+            return new Verification(null, false);
+        }
+    }
+
+    private record Verification(Claims claims, boolean expired) {
+    }
+}
@@ -0,0 +1,390 @@
+package com.petlytic.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petlytic.dtos.responses.UserImportReport;
+import com.petlytic.cores.invalidation.CacheInvalidationBus;
+import com.petlytic.cores.invalidation.InvalidationTopic;
+import com.petlytic.dtos.responses.UserImportRow;
+import com.petlytic.models.enums.ImportStatus;
+import com.petlytic.models.enums.Role;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Imports users from CSV ({@code email,username,password} header) or NDJSON, chunk by chunk:
+ * one set-based duplicate check, parallel password hashing and batched inserts per chunk,
+ * with verification emails queued for later dispatch.
+ */
+@Slf4j
+@Service
+@Lazy
+public class UserImportService {
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final int MIN_PASSWORD_LENGTH = 6;
+
+    private static final String FIND_EXISTING =
+            "select email, username from users where email = any(?) or username = any(?)";
+    private static final String INSERT_USER =
+            "insert into users (id, username, email, password, is_active, role, created_at, updated_at, verification_nonce, verification_sent_at) "
+                    + "values (?, ?, ?, ?, false, ?, ?, ?, 0, ?) on conflict do nothing";
+    private static final String INSERT_TOKEN =
+            "insert into verification_tokens (id, verification_code, verication_expiration, user_id, is_used) "
+                    + "values (?, ?, ?, ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final VerificationMailQueue verificationMailQueue;
+    private final VerificationCodeService verificationCodeService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingPool;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${users.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${users.import.max-rows:50000}")
+    private int maxRows;
+
+    public UserImportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            PasswordEncoder passwordEncoder,
+            VerificationMailQueue verificationMailQueue,
+            VerificationCodeService verificationCodeService,
+            EntityManagerFactory entityManagerFactory,
+            CacheInvalidationBus cacheInvalidationBus,
+            ObjectMapper objectMapper,
+            @Value("${users.import.hash-threads:0}") int hashThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.verificationMailQueue = verificationMailQueue;
+        this.verificationCodeService = verificationCodeService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.objectMapper = objectMapper;
+        int poolSize = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingPool = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "user-import-hashing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private record ImportRow(int row, String email, String username, String password) {
+    }
+
+    /**
+     * Emails and usernames of a chunk that are already registered.
+     */
+    private record Registered(Set<String> emails, Set<String> usernames) {
+    }
+
+    public UserImportReport importCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return process(List.<ImportRow>of().iterator());
+        }
+        List<String> columns = parseCsvLine(header).stream().map(c -> c.trim().toLowerCase()).toList();
+        int emailColumn = columns.indexOf("email");
+        int usernameColumn = columns.indexOf("username");
+        int passwordColumn = columns.indexOf("password");
+
+        Iterator<ImportRow> rows = new Iterator<>() {
+            private String next = readNonBlank();
+            private int row = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ImportRow next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                List<String> values = parseCsvLine(next);
+                next = readNonBlank();
+                return new ImportRow(++row, column(values, emailColumn), column(values, usernameColumn), column(values, passwordColumn));
+            }
+
+            private String readNonBlank() {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null && line.isBlank()) {
+                        row++;
+                    }
+                    return line;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return process(rows);
+    }
+
+    public UserImportReport importNdjson(InputStream in) throws IOException {
+        MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(in);
+        Iterator<ImportRow> rows = new Iterator<>() {
+            private int row;
+
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public ImportRow next() {
+                JsonNode node = nodes.next();
+                return new ImportRow(++row, text(node, "email"), text(node, "username"), text(node, "password"));
+            }
+        };
+        return process(rows);
+    }
+
+    private UserImportReport process(Iterator<ImportRow> rows) {
+        List<UserImportRow> results = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenUsernames = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        int read = 0;
+
+        while (rows.hasNext()) {
+            ImportRow row = rows.next();
+            if (++read > maxRows) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.INVALID, "Row limit of " + maxRows + " exceeded"));
+                break;
+            }
+
+            String error = validate(row);
+            String username = usernameOf(row);
+            if (error != null) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.INVALID, error));
+            } else if (!seenEmails.add(row.email())) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.DUPLICATE, "Email repeated in file"));
+            } else if (!seenUsernames.add(username)) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.DUPLICATE, "Username repeated in file"));
+            } else {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    results.addAll(importChunk(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk));
+        }
+
+        results.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+        return UserImportReport.builder()
+                .created(count(results, ImportStatus.CREATED))
+                .duplicates(count(results, ImportStatus.DUPLICATE))
+                .invalid(count(results, ImportStatus.INVALID))
+                .rows(results)
+                .build();
+    }
+
+    private List<UserImportRow> importChunk(List<ImportRow> chunk) {
+        List<UserImportRow> results = new ArrayList<>(chunk.size());
+
+        Registered existing = findExisting(chunk);
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existing.emails().contains(row.email())) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.DUPLICATE, "Email already registered"));
+            } else if (existing.usernames().contains(usernameOf(row))) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.DUPLICATE, "Username already taken"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        List<CompletableFuture<String>> hashes = candidates.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.password()), hashingPool))
+                .toList();
+
+        LocalDateTime now = verificationCodeService.issuedAt();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        Timestamp codeExpiration = Timestamp.valueOf(now.plusMinutes(15));
+        boolean stateless = verificationCodeService.isStateless();
+        List<UUID> ids = candidates.stream().map(row -> UUID.randomUUID()).toList();
+        List<String> codes = ids.stream()
+                .map(id -> stateless ? verificationCodeService.codeFor(id, now, 0) : generateVerificationCode())
+                .toList();
+
+        List<Object[]> userArgs = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            ImportRow row = candidates.get(i);
+            userArgs.add(new Object[]{ids.get(i), usernameOf(row), row.email(), hashes.get(i).join(), Role.CUSTOMER.name(), createdAt, createdAt, stateless ? createdAt : null});
+        }
+
+        List<Integer> insertedIndexes = transactionTemplate.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_USER, userArgs);
+            List<Integer> inserted = new ArrayList<>();
+            List<Object[]> tokenArgs = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    inserted.add(i);
+                }
+                if (counts[i] > 0 && !stateless) {
+                    tokenArgs.add(new Object[]{UUID.randomUUID(), codes.get(i), codeExpiration, ids.get(i)});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_TOKEN, tokenArgs);
+            return inserted;
+        });
+
+        Set<Integer> inserted = new HashSet<>(insertedIndexes);
+        for (int i = 0; i < candidates.size(); i++) {
+            ImportRow row = candidates.get(i);
+            if (inserted.contains(i)) {
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.CREATED, null));
+                cacheInvalidationBus.publish(InvalidationTopic.USER, ids.get(i));
+                if (!verificationMailQueue.enqueue(row.email(), codes.get(i))) {
+                    log.warn("Verification mail queue is full; {} must request a new code", row.email());
+                }
+            } else {
+                // Lost a race with a concurrent signup between the check and the insert.
+                results.add(new UserImportRow(row.row(), row.email(), ImportStatus.DUPLICATE, "Email or username already registered"));
+            }
+        }
+
+        // Rows were written with plain JDBC, so cached existsByEmail results may be stale here
+        // and, through the events published above, on the other nodes.
+        entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+        return results;
+    }
+
+    private Registered findExisting(List<ImportRow> chunk) {
+        String[] emails = chunk.stream().map(ImportRow::email).toArray(String[]::new);
+        String[] usernames = chunk.stream().map(this::usernameOf).toArray(String[]::new);
+
+        Registered existing = new Registered(new HashSet<>(), new HashSet<>());
+        jdbcTemplate.query(FIND_EXISTING, ps -> {
+            Array emailArray = ps.getConnection().createArrayOf("text", emails);
+            Array usernameArray = ps.getConnection().createArrayOf("text", usernames);
+            ps.setArray(1, emailArray);
+            ps.setArray(2, usernameArray);
+        }, rs -> {
+            existing.emails().add(rs.getString("email"));
+            existing.usernames().add(rs.getString("username"));
+        });
+        return existing;
+    }
+
+    private String validate(ImportRow row) {
+        if (row.email() == null || !EMAIL.matcher(row.email()).matches()) {
+            return "Email is not valid";
+        }
+        // Imported accounts sign in with a password; without one they could never log in.
+        if (row.password() == null) {
+            return "Password is required";
+        }
+        if (row.password().length() < MIN_PASSWORD_LENGTH) {
+            return "Password must contain at least 6 characters";
+        }
+        return null;
+    }
+
+    private String usernameOf(ImportRow row) {
+        return row.username() == null ? row.email() : row.username();
+    }
+
+    private String generateVerificationCode() {
+        return String.valueOf(secureRandom.nextInt(900000) + 100000);
+    }
+
+    private static int count(List<UserImportRow> rows, ImportStatus status) {
+        return (int) rows.stream().filter(row -> row.getStatus() == status).count();
+    }
+
+    private static String column(List<String> values, int index) {
+        if (index < 0 || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull() || value.asText().isBlank()) {
+            return null;
+        }
+        return value.asText().trim();
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -1,22 +1,58 @@
 package com.petlytic.services;
 
+import com.petlytic.cores.routing.ReplicaRouting;
+import com.petlytic.exceptions.ResourceNotFoundException;
 import com.petlytic.models.User;
+import com.petlytic.models.enums.ResourceType;
 import com.petlytic.repositories.UserRepository;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
-    public UserService(UserRepository userRepository, EmailService emailService) {
+    private final AvatarStorageService avatarStorageService;
+    private final ReplicaRouting replicaRouting;
+    public UserService(UserRepository userRepository, AvatarStorageService avatarStorageService, ReplicaRouting replicaRouting) {
         this.userRepository = userRepository;
+        this.avatarStorageService = avatarStorageService;
+        this.replicaRouting = replicaRouting;
     }
 
-    public List<User> allUsers() {
-        List<User> users = new ArrayList<>();
-        userRepository.findAll().forEach(users::add);
-        return users;
+    /**
+     * One page of users in id order, starting after {@code after} (or at the beginning when null).
+     * Keyset paging on the primary key costs the same on every page.
+     */
+    @Transactional(readOnly = true)
+    public Window<User> listUsers(UUID after, int size) {
+        ScrollPosition position = after == null ? ScrollPosition.keyset() : ScrollPosition.forward(Map.of("id", after));
+        return userRepository.scroll(null, Sort.by("id"), size, position);
+    }
+
+    /**
+     * Stores the uploaded image and points the user's avatar at it. The file is written before
+     * the row is touched, so no transaction is held open while the upload streams in. The save
+     * publishes the cache invalidation through the entity listener.
+     */
+    public String updateAvatar(UUID userId, InputStream image) throws IOException {
+        String avatarUrl = "/avatars/" + avatarStorageService.store(image);
+        setAvatarUrl(userId, avatarUrl);
+        return avatarUrl;
+    }
+
+    private void setAvatarUrl(UUID userId, String avatarUrl) {
+        // Read from the primary: saving a lagging replica's copy would undo newer changes.
+        User user = replicaRouting.onPrimary(() -> userRepository.findById(userId))
+                .orElseThrow(() -> new ResourceNotFoundException(ResourceType.USER, "id", userId));
+        user.setAvatarUrl(avatarUrl);
+        userRepository.save(user);
     }
 }
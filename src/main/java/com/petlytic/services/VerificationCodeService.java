@@ -0,0 +1,116 @@
+package com.petlytic.services;
+
+import com.petlytic.models.User;
+import com.petlytic.models.enums.VerificationMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Derives email verification codes from an HMAC over the user id, expiry and the user's
+ * verification nonce, so the {@code HMAC} mode needs no {@code verification_tokens} rows.
+ * Bumping the nonce on resend or successful verification invalidates earlier codes.
+ */
+@Service
+public class VerificationCodeService {
+    private static final int CODE_MODULUS = 1_000_000;
+
+    private final VerificationMode mode;
+    private final SecretKeySpec key;
+
+    @Value("${security.verification.code-ttl:900000}")
+    private long codeTtl;
+
+    @Value("${security.verification.resend-interval:60000}")
+    private long resendInterval;
+
+    public VerificationCodeService(
+            @Value("${security.verification.mode:token}") String mode,
+            @Value("${security.jwt.secret-key}") String secretKey
+    ) {
+        this.mode = VerificationMode.valueOf(mode.trim().toUpperCase());
+        this.key = deriveKey(secretKey);
+    }
+
+    public boolean isStateless() {
+        return mode == VerificationMode.HMAC;
+    }
+
+    /**
+     * Timestamp to store as {@code verification_sent_at}; truncated so the expiry
+     * round-trips through the database unchanged.
+     */
+    public LocalDateTime issuedAt() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    public String codeFor(User user) {
+        return codeFor(user.getId(), user.getVerificationSentAt(), user.getVerificationNonce());
+    }
+
+    public String codeFor(UUID userId, LocalDateTime sentAt, int nonce) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] digest = mac.doFinal(ByteBuffer.allocate(28)
+                    .putLong(userId.getMostSignificantBits())
+                    .putLong(userId.getLeastSignificantBits())
+                    .putLong(expiresAt(sentAt).toEpochSecond(ZoneOffset.UTC))
+                    .putInt(nonce)
+                    .array());
+
+            // Dynamic truncation as in HOTP (RFC 4226).
+            int offset = digest[digest.length - 1] & 0x0f;
+            int binary = ((digest[offset] & 0x7f) << 24)
+                    | ((digest[offset + 1] & 0xff) << 16)
+                    | ((digest[offset + 2] & 0xff) << 8)
+                    | (digest[offset + 3] & 0xff);
+            return String.format("%06d", binary % CODE_MODULUS);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not compute verification code", e);
+        }
+    }
+
+    public boolean matches(User user, String code) {
+        if (user.getVerificationSentAt() == null || code == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                codeFor(user).getBytes(StandardCharsets.US_ASCII),
+                code.trim().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public boolean isExpired(User user, LocalDateTime now) {
+        return expiresAt(user.getVerificationSentAt()).isBefore(now);
+    }
+
+    public boolean canResend(User user, LocalDateTime now) {
+        return user.getVerificationSentAt() == null
+                || !user.getVerificationSentAt().plusNanos(resendInterval * 1_000_000).isAfter(now);
+    }
+
+    private LocalDateTime expiresAt(LocalDateTime sentAt) {
+        return sentAt.plusNanos(codeTtl * 1_000_000);
+    }
+
+    private static SecretKeySpec deriveKey(String secretKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("petlytic-verification-code".getBytes(StandardCharsets.UTF_8));
+            digest.update(secretKey.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest.digest(), "HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
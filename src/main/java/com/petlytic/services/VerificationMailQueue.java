@@ -0,0 +1,76 @@
+package com.petlytic.services;
+
+import com.petlytic.exceptions.DependencyUnavailableException;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Sends verification emails off the request path at a bounded rate. The queue is
+ * in memory; codes lost on a restart can be re-sent through {@code /auth/resend}.
+ */
+@Slf4j
+@Service
+public class VerificationMailQueue {
+    private final EmailService emailService;
+    private final BlockingQueue<PendingMail> queue;
+
+    @Value("${mail.queue.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    public VerificationMailQueue(EmailService emailService, @Value("${mail.queue.capacity:100000}") int capacity) {
+        this.emailService = emailService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    private record PendingMail(String to, String verificationCode, int attempt) {
+    }
+
+    public boolean enqueue(String to, String verificationCode) {
+        return queue.offer(new PendingMail(to, verificationCode, 1));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${mail.queue.dispatch-interval:1000}")
+    public void dispatch() {
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+        queue.drainTo(batch, batchSize);
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMail mail = batch.get(i);
+            try {
+                emailService.sendVerificationCode(mail.to(), mail.verificationCode());
+            } catch (DependencyUnavailableException e) {
+                // Not an attempt: put this and the rest of the batch back until SMTP recovers.
+                int requeued = 0;
+                for (PendingMail pending : batch.subList(i, batch.size())) {
+                    if (queue.offer(pending)) {
+                        requeued++;
+                    }
+                }
+                log.warn("SMTP unavailable, requeued {} verification emails: {}", requeued, e.getMessage());
+                return;
+            } catch (MessagingException | MailException e) {
+                if (mail.attempt() < maxAttempts && queue.offer(new PendingMail(mail.to(), mail.verificationCode(), mail.attempt() + 1))) {
+                    log.warn("Verification email to {} failed, will retry: {}", mail.to(), e.getMessage());
+                } else {
+                    log.error("Giving up on verification email to {}: {}", mail.to(), e.getMessage());
+                }
+            }
+        }
+    }
+}
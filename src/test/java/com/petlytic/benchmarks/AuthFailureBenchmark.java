@@ -0,0 +1,83 @@
+package com.petlytic.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.petlytic.exceptions.AuthException;
+import com.petlytic.models.enums.AuthErrorCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a login: throwing the failure a few frames deep, catching it in the
+ * "handler" and serializing the error body. Compares the old RuntimeException + HashMap
+ * path with the stackless AuthException + preallocated body.
+ * <p>
+ * Not part of the test run. After {@code mvn test-compile}, run {@link #main} or
+ * {@code org.openjdk.jmh.Main AuthFailureBenchmark -prof gc} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthFailureBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Benchmark
+    public byte[] runtimeExceptionWithMapBody() throws Exception {
+        try {
+            descend(8, false);
+            return null;
+        } catch (RuntimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("timestamp", LocalDateTime.now());
+            response.put("status", 401);
+            response.put("error", "Unauthorized");
+            response.put("message", e.getMessage());
+            return objectMapper.writeValueAsBytes(response);
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessExceptionWithPreallocatedBody() throws Exception {
+        try {
+            descend(8, true);
+            return null;
+        } catch (AuthException e) {
+            return objectMapper.writeValueAsBytes(e.getCode().getBody());
+        }
+    }
+
+    private static void descend(int depth, boolean stackless) {
+        if (depth > 0) {
+            descend(depth - 1, stackless);
+            return;
+        }
+        if (stackless) {
+            throw new AuthException(AuthErrorCode.BAD_CREDENTIALS);
+        }
+        throw new RuntimeException("Bad credentials");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthFailureBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
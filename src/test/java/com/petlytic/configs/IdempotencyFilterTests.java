@@ -0,0 +1,173 @@
+package com.petlytic.configs;
+
+import com.petlytic.cores.idempotency.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTests {
+    private static final String BODY = "{\"email\":\"a@petlytic.test\",\"password\":\"secret\"}";
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyStore store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(store, "maxEntries", 100);
+        filter = new IdempotencyFilter(store);
+        ReflectionTestUtils.setField(filter, "waitTimeoutMillis", 200L);
+    }
+
+    @Test
+    void retryIsReplayedWithoutRunningTheHandlerAgain() throws Exception {
+        FilterChain handler = respondingWith("{\"accessToken\":\"first\"}");
+
+        MockHttpServletResponse first = send("key-1", BODY, handler);
+        MockHttpServletResponse retry = send("key-1", BODY, handler);
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader("Idempotent-Replayed"));
+        assertNull(first.getHeader("Idempotent-Replayed"));
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejected() throws Exception {
+        FilterChain handler = respondingWith("{}");
+
+        send("key-2", BODY, handler);
+        MockHttpServletResponse reused = send("key-2", BODY.replace("secret", "other"), handler);
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    void duplicateOfARequestStillRunningIsToldToRetry() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowHandler = (request, response) -> {
+            executions.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.getWriter().write("{}");
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return send("key-3", BODY, slowHandler);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (executions.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        // The wait times out while the first request is still inside the handler.
+        MockHttpServletResponse duplicate = send("key-3", BODY, slowHandler);
+        release.countDown();
+
+        assertEquals(409, duplicate.getStatus());
+        assertEquals("1", duplicate.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void duplicateOfAFailedRequestIsNotRunAndTheNextRetryIs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain failingOnce = (request, response) -> {
+            if (executions.incrementAndGet() == 1) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                ((HttpServletResponse) response).sendError(503);
+                return;
+            }
+            response.getWriter().write("{}");
+        };
+        ReflectionTestUtils.setField(filter, "waitTimeoutMillis", 5_000L);
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return send("key-4", BODY, failingOnce);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (executions.get() == 0) {
+            Thread.sleep(1);
+        }
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> {
+            try {
+                return send("key-4", BODY, failingOnce);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // Give the duplicate time to join the first request before it fails.
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(503, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(409, duplicate.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, executions.get());
+
+        assertEquals(200, send("key-4", BODY, failingOnce).getStatus());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void bufferedBodyCanBeReadAgainDownstream() throws Exception {
+        StringBuilder seen = new StringBuilder();
+        FilterChain echo = (request, response) -> {
+            executions.incrementAndGet();
+            seen.append(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8));
+        };
+
+        send("key-5", BODY, echo);
+
+        assertEquals(BODY, seen.toString());
+    }
+
+    private FilterChain respondingWith(String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            response.setContentType("application/json");
+            response.getWriter().write(body);
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setServletPath("/auth/login");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,105 @@
+package com.petlytic.controllers;
+
+import com.petlytic.services.AvatarStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "avatars.thumbnails.sizes=32")
+@AutoConfigureMockMvc
+class AvatarControllerTests {
+    @TempDir
+    static Path storage;
+
+    @DynamicPropertySource
+    static void storagePath(DynamicPropertyRegistry registry) {
+        registry.add("avatars.storage.path", () -> storage.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AvatarStorageService avatarStorageService;
+
+    private byte[] png;
+    private String name;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", out);
+        png = out.toByteArray();
+        name = avatarStorageService.store(new ByteArrayInputStream(png));
+    }
+
+    @Test
+    void singleRangeIsServedAsPartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get("/avatars/" + name).header(HttpHeaders.RANGE, "bytes=2-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-9/" + png.length))
+                .andReturn();
+
+        assertArrayEquals(Arrays.copyOfRange(png, 2, 10), result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void rangePastTheEndIsUnsatisfiable() throws Exception {
+        mockMvc.perform(get("/avatars/" + name).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + png.length));
+    }
+
+    @Test
+    void matchingTagIsAnsweredWithoutTouchingTheFile() throws Exception {
+        String etag = mockMvc.perform(get("/avatars/" + name))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/avatars/" + name).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Names are content hashes, so the tag alone decides; no lookup, not even a 404.
+        String missing = "0".repeat(64) + ".png";
+        mockMvc.perform(get("/avatars/" + missing).header(HttpHeaders.IF_NONE_MATCH, "\"" + "0".repeat(64) + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void pendingThumbnailIsServedAsynchronously() throws Exception {
+        MvcResult pending = mockMvc.perform(get("/avatars/" + name).param("size", "32"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + name.substring(0, 64) + "-32\""))
+                .andReturn();
+        assertEquals(32, ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())).getWidth());
+    }
+}
@@ -0,0 +1,116 @@
+package com.petlytic.controllers;
+
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.UserRepository;
+import com.petlytic.services.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private User user;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        // Tokens carry the username and the JWT filter resolves it as an email.
+        String email = "etag-" + UUID.randomUUID() + "@petlytic.test";
+        user = userRepository.save(User.builder()
+                .username(email)
+                .email(email)
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build());
+        bearer = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void unchangedProfileIsAnsweredWithNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\""), "ETag must be strong");
+
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void changedProfileGetsANewTag() throws Exception {
+        String before = mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.setPhoneNumber("+84123456789");
+        userRepository.save(stored);
+
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, bearer).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(result -> assertNotEquals(before, result.getResponse().getHeader(HttpHeaders.ETAG)));
+    }
+
+    @Test
+    void listingPagesCarryTagsAndNextLinks() throws Exception {
+        MvcResult page = mockMvc.perform(get("/users/").param("size", "1").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, must-revalidate, private"))
+                .andReturn();
+        String etag = page.getResponse().getHeader(HttpHeaders.ETAG);
+        String link = page.getResponse().getHeader(HttpHeaders.LINK);
+        assertNotNull(link);
+        assertTrue(link.contains("after=") && link.endsWith("rel=\"next\""), link);
+
+        mockMvc.perform(get("/users/").param("size", "1").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        String next = UriComponentsBuilder.fromUriString(link.substring(1, link.indexOf('>')))
+                .build().getQueryParams().getFirst("after");
+        MvcResult second = mockMvc.perform(get("/users/").param("size", "1").param("after", next)
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, second.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(1, second.getResponse().getContentAsString().split("\"email\"").length - 1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.petlytic.cores;
+
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BaseRepositoryTests {
+    private static final int USERS = 7;
+
+    private final String prefix = "base-" + UUID.randomUUID() + "-";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    record EmailAndRole(String email, Role role) {
+    }
+
+    interface UsernameOnly {
+        String getUsername();
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .username(prefix + i)
+                    .email(prefix + i + "@petlytic.test")
+                    .role(Role.CUSTOMER)
+                    .active(false)
+                    .build());
+        }
+        userRepository.saveAll(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from users where email like ?", prefix + "%");
+    }
+
+    @Test
+    void scrollWalksAllRowsByKeyset() {
+        List<String> emails = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<User> window;
+        do {
+            window = userRepository.scroll(seeded(), Sort.by("email"), 3, position);
+            window.forEach(user -> emails.add(user.getEmail()));
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        assertEquals(USERS, emails.size());
+        assertEquals(emails.stream().sorted().toList(), emails);
+    }
+
+    @Test
+    void projectionsSelectOnlyTheirColumns() {
+        List<EmailAndRole> records = userRepository.findAllProjected(seeded(), EmailAndRole.class);
+        List<UsernameOnly> interfaces = userRepository.findAllProjected(seeded(), UsernameOnly.class);
+
+        assertEquals(USERS, records.size());
+        assertTrue(records.stream().allMatch(r -> r.role() == Role.CUSTOMER && r.email().startsWith(prefix)));
+        assertEquals(USERS, interfaces.size());
+        assertTrue(interfaces.stream().allMatch(p -> p.getUsername().startsWith(prefix)));
+    }
+
+    @Test
+    void streamAllReadsThroughCursor() {
+        long count = transactionTemplate.execute(status -> {
+            try (Stream<User> users = userRepository.streamAll(seeded(), 2)) {
+                return users.filter(user -> !user.isEnabled()).count();
+            }
+        });
+
+        assertEquals(USERS, count);
+    }
+
+    @Test
+    void updateAllChangesRowsInOneStatementAndRefreshesCache() {
+        String email = prefix + "0@petlytic.test";
+        assertFalse(userRepository.findByEmail(email).orElseThrow().isEnabled());
+
+        LocalDateTime before = updatedAt(email);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        int updated = userRepository.updateAll(seeded(), Map.of("active", true));
+
+        assertEquals(USERS, updated);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(userRepository.findByEmail(email).orElseThrow().isEnabled());
+        assertTrue(updatedAt(email).isAfter(before));
+    }
+
+    @Test
+    void upsertAllInsertsNewAndUpdatesExistingRows() {
+        User existing = userRepository.findByEmail(prefix + "0@petlytic.test").orElseThrow();
+        LocalDateTime before = updatedAt(existing.getEmail());
+        existing.setPhoneNumber("0900000000");
+        User created = User.builder()
+                .id(UUID.randomUUID())
+                .username(prefix + "new")
+                .email(prefix + "new@petlytic.test")
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build();
+
+        userRepository.upsertAll(List.of(existing, created));
+
+        assertEquals(USERS + 1, userRepository.count(seeded()));
+        assertEquals("0900000000", userRepository.findByEmail(existing.getEmail()).orElseThrow().getPhoneNumber());
+        assertTrue(userRepository.findByEmail(created.getEmail()).orElseThrow().isEnabled());
+        assertTrue(updatedAt(existing.getEmail()).isAfter(before));
+        assertNotNull(updatedAt(created.getEmail()));
+    }
+
+    private LocalDateTime updatedAt(String email) {
+        return jdbcTemplate.queryForObject("select updated_at from users where email = ?", LocalDateTime.class, email);
+    }
+
+    private Specification<User> seeded() {
+        return (root, query, cb) -> cb.like(root.get("email"), prefix + "%");
+    }
+}
@@ -0,0 +1,115 @@
+package com.petlytic.cores.activity;
+
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Flushed by hand; the timer would race the assertions on the pending map.
+@SpringBootTest(properties = "activity.flush-interval=3600000")
+class ActivityTrackerTests {
+    @Autowired
+    private ActivityTracker activityTracker;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        activityTracker.flush();
+        String email = "activity-" + UUID.randomUUID() + "@petlytic.test";
+        user = userRepository.save(User.builder()
+                .username(email)
+                .email(email)
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void repeatedHitsAreMergedAndFlushedWithoutTouchingUpdatedAt() {
+        Object updatedAt = row().get("updated_at");
+        long flushes = meterRegistry.get("activity.flush").timer().count();
+
+        activityTracker.recordLogin(user.getId());
+        activityTracker.recordSeen(user.getId());
+        activityTracker.recordSeen(user.getId());
+        assertEquals(1, activityTracker.pendingCount());
+        assertEquals(1.0, meterRegistry.get("activity.pending").gauge().value());
+
+        activityTracker.flush();
+
+        assertEquals(0, activityTracker.pendingCount());
+        assertEquals(flushes + 1, meterRegistry.get("activity.flush").timer().count());
+        Map<String, Object> row = row();
+        Timestamp lastLoginAt = (Timestamp) row.get("last_login_at");
+        Timestamp lastSeenAt = (Timestamp) row.get("last_seen_at");
+        assertNotNull(lastLoginAt);
+        assertFalse(lastSeenAt.before(lastLoginAt));
+        assertEquals(updatedAt, row.get("updated_at"));
+    }
+
+    @Test
+    void olderActivityNeverOverwritesNewer() {
+        jdbcTemplate.update("update users set last_seen_at = now() + interval '1 day' where id = ?", user.getId());
+        Timestamp future = (Timestamp) row().get("last_seen_at");
+
+        activityTracker.recordSeen(user.getId());
+        activityTracker.flush();
+
+        assertEquals(future, row().get("last_seen_at"));
+        assertNull(row().get("last_login_at"));
+    }
+
+    @Test
+    void flushesLeaveCachedUsersInPlace() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        userRepository.findById(user.getId());
+        assertTrue(cache.containsEntity(User.class, user.getId()));
+
+        activityTracker.recordSeen(user.getId());
+        activityTracker.flush();
+
+        assertTrue(cache.containsEntity(User.class, user.getId()));
+        assertNotNull(row().get("last_seen_at"));
+    }
+
+    private Map<String, Object> row() {
+        return jdbcTemplate.queryForMap("select last_login_at, last_seen_at, updated_at from users where id = ?", user.getId());
+    }
+}
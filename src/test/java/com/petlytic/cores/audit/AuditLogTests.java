@@ -0,0 +1,78 @@
+package com.petlytic.cores.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class AuditLogTests {
+    private final UUID userId = UUID.randomUUID();
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from audit_log where user_id = ?", userId);
+    }
+
+    @Test
+    void recordedEventsAreCopiedInBatches() {
+        auditLog.record(AuditAction.LOGIN, userId, null);
+        auditLog.record(AuditAction.LOGIN_FAILED, userId, "quote \" and, comma");
+        auditLog.flush();
+
+        assertEquals(2, count());
+        assertEquals("quote \" and, comma", jdbcTemplate.queryForObject(
+                "select detail from audit_log where user_id = ? and action = 'LOGIN_FAILED'", String.class, userId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from audit_log where user_id = ? and detail is null", Integer.class, userId));
+    }
+
+    @Test
+    void overflowSpillsToFileAndIsLoadedOnStart() throws Exception {
+        Path spillFile = tempDir.resolve("audit-spill.csv");
+        AuditLog spilling = new AuditLog(dataSource, 2, "spill");
+        ReflectionTestUtils.setField(spilling, "enabled", true);
+        ReflectionTestUtils.setField(spilling, "batchSize", 100);
+        ReflectionTestUtils.setField(spilling, "flushIntervalMillis", 50L);
+        ReflectionTestUtils.setField(spilling, "spillFile", spillFile);
+
+        for (int i = 0; i < 5; i++) {
+            spilling.record(AuditAction.TOKEN_REFRESH, userId, "event " + i);
+        }
+        assertEquals(3, spilling.getSpilled());
+        assertEquals(0, count());
+
+        spilling.start();
+        spilling.stop();
+
+        assertEquals(5, count());
+        assertFalse(Files.exists(spillFile));
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from audit_log where user_id = ?", Integer.class, userId);
+    }
+}
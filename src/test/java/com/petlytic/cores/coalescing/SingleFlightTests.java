@@ -0,0 +1,120 @@
+package com.petlytic.cores.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTests {
+    private static final int CALLERS = 16;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, Object> flight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+
+        List<Future<Object>> callers = startCallers(() -> flight.execute("key", () -> {
+            executions.incrementAndGet();
+            release.await();
+            return result;
+        }));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> caller : callers) {
+            assertSame(result, caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1.0, count("executed"));
+        assertEquals(CALLERS - 1.0, count("coalesced"));
+
+        // Completed flights are not cached.
+        flight.execute("key", () -> executions.incrementAndGet());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void waitingCallersGetTheSameException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("down");
+
+        List<Future<Object>> callers = startCallers(() -> {
+            try {
+                return flight.execute("key", () -> {
+                    release.await();
+                    throw failure;
+                });
+            } catch (IOException e) {
+                return e;
+            }
+        });
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> caller : callers) {
+            assertSame(failure, caller.get(5, TimeUnit.SECONDS));
+        }
+        assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+            throw new IllegalStateException("tried again");
+        }));
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> blocked = executor.submit(() -> flight.execute("slow", () -> {
+                release.await();
+                return "slow";
+            }));
+
+            assertEquals("fast", flight.execute("fast", () -> "fast"));
+            assertFalse(blocked.isDone());
+            release.countDown();
+            assertEquals("slow", blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Future<Object>> startCallers(Callable<Object> call) {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(call));
+        }
+        executor.shutdown();
+        return futures;
+    }
+
+    private void awaitCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("singleflight.calls").tag("result", result).counter().count();
+    }
+}
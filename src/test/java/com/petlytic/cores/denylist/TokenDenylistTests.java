@@ -0,0 +1,74 @@
+package com.petlytic.cores.denylist;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenDenylistTests {
+    @TempDir
+    private Path directory;
+
+    @Test
+    void deniedTokensSurviveARestart() {
+        Path file = directory.resolve("denylist.bin");
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        String denied = UUID.randomUUID().toString();
+
+        open(file, 16).deny(denied, expiresAt);
+
+        TokenDenylist reopened = open(file, 16);
+        assertTrue(reopened.isDenied(denied));
+        assertFalse(reopened.isDenied(UUID.randomUUID().toString()));
+        assertFalse(reopened.isDenied(null));
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    void expiredEntriesAreCompactedAway() {
+        TokenDenylist denylist = open(directory.resolve("denylist.bin"), 16);
+        long now = System.currentTimeMillis();
+        String shortLived = UUID.randomUUID().toString();
+        String longLived = UUID.randomUUID().toString();
+        denylist.deny(shortLived, now + 1_000);
+        denylist.deny(longLived, now + 60_000);
+
+        denylist.compact(now + 500);
+        assertEquals(2, denylist.size());
+
+        denylist.compact(now + 2_000);
+        assertEquals(1, denylist.size());
+        assertFalse(denylist.isDenied(shortLived));
+        assertTrue(denylist.isDenied(longLived));
+        assertFalse(Files.exists(directory.resolve("denylist.bin.tmp")));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        Path file = directory.resolve("denylist.bin");
+        TokenDenylist denylist = open(file, 16);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        String[] ids = new String[1_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            denylist.deny(ids[i], expiresAt);
+        }
+
+        TokenDenylist reopened = open(file, 16);
+        assertEquals(ids.length, reopened.size());
+        for (String id : ids) {
+            assertTrue(reopened.isDenied(id));
+        }
+    }
+
+    private static TokenDenylist open(Path file, int capacity) {
+        return new TokenDenylist(file, capacity, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,190 @@
+package com.petlytic.cores.invalidation;
+
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CacheInvalidationBusTests {
+    private static final String BATCH = "<batch>";
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${cache.invalidation.channel}")
+    private String channel;
+
+    @Test
+    void remoteEventsReachSubscribedHandlers() throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        cacheInvalidationBus.subscribe(InvalidationTopic.USER, recordingHandler(received));
+
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class,
+                channel, "other-node|UNKNOWN:" + UUID.randomUUID() + ",USER:" + key);
+
+        assertEquals(key, received.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void entityEventsEvictTheWholeType() throws InterruptedException {
+        User user = userRepository.save(User.builder()
+                .username("bus-" + UUID.randomUUID())
+                .email("bus-" + UUID.randomUUID() + "@petlytic.test")
+                .role(Role.CUSTOMER)
+                .build());
+        try {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            userRepository.findById(user.getId());
+            assertTrue(cache.containsEntity(User.class, user.getId()));
+
+            jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class,
+                    channel, "other-node|ENTITY:" + User.class.getName());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.containsEntity(User.class, user.getId()) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(cache.containsEntity(User.class, user.getId()));
+        } finally {
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    @Test
+    void publishedEventsAreBatchedIntoNotifications() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+            }
+
+            List<String> keys = List.of("a", "b", "c");
+            keys.forEach(key -> cacheInvalidationBus.publish(InvalidationTopic.USER, key));
+            cacheInvalidationBus.flush();
+
+            // The background flusher may have split the burst; every event must still arrive.
+            Set<String> events = new HashSet<>();
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            while (events.size() < keys.size()) {
+                PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                assertNotNull(notifications);
+                for (PGNotification notification : notifications) {
+                    String payload = notification.getParameter();
+                    events.addAll(Arrays.asList(payload.substring(payload.indexOf('|') + 1).split(",")));
+                }
+            }
+            assertEquals(Set.of("USER:a", "USER:b", "USER:c"), events);
+        }
+    }
+
+    @Test
+    void handlersCompleteEachReceivedBatchOnce() throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        cacheInvalidationBus.subscribe(InvalidationTopic.USER, recordingHandler(received));
+
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class,
+                channel, "other-node|USER:" + key + "-1,USER:" + key + "-2,USER:" + key + "-3");
+
+        List<String> events = new ArrayList<>();
+        while (!events.contains(BATCH)) {
+            String event = received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event);
+            events.add(event);
+        }
+        assertEquals(List.of(key + "-1", key + "-2", key + "-3", BATCH), events);
+    }
+
+    @Test
+    void failedPublishesAreRetried() {
+        List<String> sent = new ArrayList<>();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        CacheInvalidationBus bus = new CacheInvalidationBus(new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                if (failing.get()) {
+                    throw new DataAccessResourceFailureException("connection lost");
+                }
+                sent.add((String) args[1]);
+                return null;
+            }
+        });
+        ReflectionTestUtils.setField(bus, "enabled", true);
+
+        bus.publish(InvalidationTopic.ACCESS_TOKEN, "jti@1");
+        bus.flush();
+        assertTrue(sent.isEmpty());
+
+        failing.set(false);
+        bus.flush();
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).endsWith("|ACCESS_TOKEN:jti@1"));
+    }
+
+    private InvalidationHandler recordingHandler(BlockingQueue<String> received) {
+        return new InvalidationHandler() {
+            private boolean invalidated;
+
+            @Override
+            public void invalidate(String key) {
+                invalidated = true;
+                received.add(key);
+            }
+
+            @Override
+            public void invalidateAll() {
+            }
+
+            @Override
+            public void afterBatch() {
+                if (invalidated) {
+                    invalidated = false;
+                    received.add(BATCH);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.petlytic.cores.resilience;
+
+import com.petlytic.exceptions.DependencyUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGuardTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void circuitOpensOnFailureRateAndClosesAfterSuccessfulTrials() throws Exception {
+        DependencyGuard guard = guard(new GuardSettings(5, 0, 4, 4, 50, 100, 2));
+
+        guard.execute(() -> "ok");
+        guard.execute(() -> "ok");
+        assertThrows(IOException.class, () -> guard.execute(this::fail));
+        assertEquals(CircuitState.CLOSED, guard.getState());
+        assertThrows(IOException.class, () -> guard.execute(this::fail));
+
+        assertEquals(CircuitState.OPEN, guard.getState());
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.execute(() -> "never called"));
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+
+        Thread.sleep(150);
+        guard.execute(() -> "trial");
+        assertEquals(CircuitState.HALF_OPEN, guard.getState());
+        guard.execute(() -> "trial");
+
+        assertEquals(CircuitState.CLOSED, guard.getState());
+        assertEquals(1.0, transitions("CLOSED", "OPEN"));
+        assertEquals(1.0, transitions("OPEN", "HALF_OPEN"));
+        assertEquals(1.0, transitions("HALF_OPEN", "CLOSED"));
+        assertEquals(1.0, meterRegistry.counter("resilience.calls", "dependency", "test", "outcome", "rejected_open").count());
+    }
+
+    @Test
+    void failedTrialReopensCircuit() throws Exception {
+        DependencyGuard guard = guard(new GuardSettings(5, 0, 2, 1, 100, 50, 1));
+        assertThrows(IOException.class, () -> guard.execute(this::fail));
+        Thread.sleep(80);
+
+        assertThrows(IOException.class, () -> guard.execute(this::fail));
+
+        assertEquals(CircuitState.OPEN, guard.getState());
+        assertEquals(1.0, transitions("HALF_OPEN", "OPEN"));
+    }
+
+    @Test
+    void trialsEndingInAnErrorStillSettleTheirPermit() throws Exception {
+        DependencyGuard guard = guard(new GuardSettings(5, 0, 2, 1, 100, 50, 1));
+        assertThrows(IOException.class, () -> guard.execute(this::fail));
+        Thread.sleep(80);
+
+        assertThrows(StackOverflowError.class, () -> guard.execute(() -> {
+            throw new StackOverflowError();
+        }));
+
+        assertEquals(CircuitState.CLOSED, guard.getState());
+        assertEquals("ok", guard.execute(() -> "ok"));
+    }
+
+    @Test
+    void exceptionsThatAreNotDependencyFailuresDoNotTripTheCircuit() {
+        DependencyGuard guard = guard(new GuardSettings(5, 0, 2, 1, 50, 1000, 1));
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> guard.execute(() -> {
+                throw new IllegalArgumentException("bad input");
+            }));
+        }
+
+        assertEquals(CircuitState.CLOSED, guard.getState());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondItsLimit() throws Exception {
+        DependencyGuard guard = guard(new GuardSettings(2, 10, 10, 10, 50, 1000, 1));
+        CountDownLatch inFlight = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> guard.execute(() -> slow(inFlight, release)));
+            Future<?> second = executor.submit(() -> guard.execute(() -> slow(inFlight, release)));
+            assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(DependencyUnavailableException.class, () -> guard.execute(() -> "third"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals("after", guard.execute(() -> "after"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DependencyGuard guard(GuardSettings settings) {
+        return new DependencyGuard("test", settings, e -> e instanceof IOException, meterRegistry);
+    }
+
+    private String fail() throws IOException {
+        throw new IOException("connection reset");
+    }
+
+    private static String slow(CountDownLatch inFlight, CountDownLatch release) throws InterruptedException {
+        inFlight.countDown();
+        release.await();
+        return "done";
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.counter("resilience.circuit.transitions", "dependency", "test", "from", from, "to", to).count();
+    }
+}
@@ -0,0 +1,116 @@
+package com.petlytic.cores.routing;
+
+import com.petlytic.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against a second local instance when {@code REPLICA_DATASOURCE_URL} is set, otherwise
+ * against a second pool on the primary. Pools are told apart by their application_name.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=${REPLICA_DATASOURCE_URL:${spring.datasource.url}}",
+        "datasource.replica.max-lag=500",
+        "datasource.replica.lag-check-interval=3600000",
+})
+class ReplicaRoutingTests {
+    private static final String PRIMARY = "petlytic-primary";
+    private static final String REPLICA = "petlytic-replica";
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void replicaCaughtUp() {
+        replicaRouting.checkLag();
+        assertEquals(0, replicaRouting.getLagMillis());
+    }
+
+    @AfterEach
+    void resetLag() {
+        replicaRouting.updateLag(0);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertEquals(REPLICA, pool(true));
+        assertEquals(PRIMARY, pool(false));
+    }
+
+    @Test
+    void readOnlyServiceCallsUseTheReplica() {
+        double before = replicaReads();
+        userService.listUsers(null, 50);
+        assertTrue(replicaReads() > before);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replicaRouting.updateLag(501);
+        assertEquals(PRIMARY, pool(true));
+
+        replicaRouting.updateLag(500);
+        assertEquals(REPLICA, pool(true));
+    }
+
+    @Test
+    void recentWritesAreReadFromThePrimary() {
+        replicaRouting.recordWrite("written@petlytic.test");
+
+        assertTrue(replicaRouting.isPinnedToPrimary("written@petlytic.test"));
+        assertFalse(replicaRouting.isPinnedToPrimary("other@petlytic.test"));
+        assertEquals(PRIMARY, replicaRouting.readYourWrites("written@petlytic.test", () -> pool(true)));
+        assertEquals(REPLICA, replicaRouting.readYourWrites("other@petlytic.test", () -> pool(true)));
+        assertEquals(PRIMARY, replicaRouting.onPrimary(() -> pool(true)));
+    }
+
+    @Test
+    void replicaEligibleTransactionsOnlyReadTheSecondLevelCache() {
+        assertEquals(CacheMode.GET, cacheMode(true));
+        assertEquals(CacheMode.NORMAL, cacheMode(false));
+        assertEquals(CacheMode.NORMAL, replicaRouting.onPrimary(() -> cacheMode(true)));
+    }
+
+    private CacheMode cacheMode(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> entityManager.unwrap(Session.class).getCacheMode());
+    }
+
+    private String pool(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> (String) entityManager
+                .createNativeQuery("select current_setting('application_name')")
+                .getSingleResult());
+    }
+
+    private double replicaReads() {
+        return meterRegistry.get("datasource.reads").tag("target", "replica").counter().count();
+    }
+}
@@ -0,0 +1,38 @@
+package com.petlytic.cores.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"warmup.enabled=true", "warmup.iterations=50", "warmup.bcrypt-iterations=1"})
+class JitWarmupTests {
+    @Autowired
+    private JitWarmup jitWarmup;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Test
+    void warmUpReportsIterationsAndCompilation() {
+        JitWarmup.Report report = jitWarmup.getLastReport();
+
+        assertNotNull(report);
+        assertEquals(50, report.iterations());
+        assertTrue(report.compilationMillis() >= 0);
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+        assertNotNull(meterRegistry.find("warmup.duration").timeGauge());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,237 @@
+package com.petlytic.fixtures;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Bulk-loads production-shaped data into {@code users}, {@code refresh_tokens} and
+ * {@code verification_tokens} with {@code COPY}. The same seed and size always produce the same
+ * rows, so query plans are comparable between runs.
+ * <ul>
+ *     <li>Tokens per user follow a Pareto distribution: most users have a handful, a few
+ *     long-lived or scripted accounts have thousands.</li>
+ *     <li>Each user's tokens are spread over one to three session families (devices). Older tokens
+ *     are revoked by rotation and mostly expired; each family's newest token is usually live.</li>
+ *     <li>Users that never verified hold one to three verification codes, some of them
+ *     expired.</li>
+ * </ul>
+ * All times are relative to a fixed instant, not to the clock.
+ */
+@Slf4j
+public class FixtureGenerator {
+    public static final String EMAIL_DOMAIN = "@fixtures.petlytic.test";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // BCrypt of "fixture-password"; hashing per row would dominate the load time.
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoO5s5ZbGvJxYjz0YV6f8xJQ5m0q6mQ9a6";
+    private static final int FLUSH_BYTES = 1 << 16;
+
+    private final long seed;
+    private final int users;
+    private final double pendingRatio;
+    private final double googleRatio;
+    private final double tokenSkew;
+    private final int maxTokensPerUser;
+
+    public FixtureGenerator(long seed, int users) {
+        this(seed, users, 0.12, 0.25, 1.3, 5000);
+    }
+
+    public FixtureGenerator(long seed, int users, double pendingRatio, double googleRatio, double tokenSkew, int maxTokensPerUser) {
+        this.seed = seed;
+        this.users = users;
+        this.pendingRatio = pendingRatio;
+        this.googleRatio = googleRatio;
+        this.tokenSkew = tokenSkew;
+        this.maxTokensPerUser = maxTokensPerUser;
+    }
+
+    private enum Table {
+        USERS("""
+                copy users (id, username, email, password, is_active, role, avatar_url, created_at, updated_at,
+                            verification_nonce, verification_sent_at) from stdin with (format csv)"""),
+        REFRESH_TOKENS("copy refresh_tokens (id, token, expires_at, revoked, user_id, family_id, device_label) from stdin with (format csv)"),
+        VERIFICATION_TOKENS("""
+                copy verification_tokens (id, verification_code, verication_expiration, is_used, user_id)
+                from stdin with (format csv)""");
+
+        private final String copySql;
+
+        Table(String copySql) {
+            this.copySql = copySql;
+        }
+    }
+
+    public record Summary(long users, long refreshTokens, long verificationTokens, long millis) {
+    }
+
+    /**
+     * Replaces the contents of the three tables with this generator's rows and refreshes the
+     * planner statistics. Does nothing if the tables already hold exactly this data set.
+     */
+    public Summary load(DataSource dataSource) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            String fingerprint = fingerprint();
+            if (fingerprint.equals(loadedFingerprint(connection))) {
+                return summarize(connection, start);
+            }
+
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("truncate users, refresh_tokens, verification_tokens cascade");
+            }
+            copy(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("comment on table users is '" + fingerprint + "'");
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("analyze users, refresh_tokens, verification_tokens");
+            }
+            Summary summary = summarize(connection, start);
+            log.info("Loaded fixtures: {} users, {} refresh tokens, {} verification tokens in {} ms",
+                    summary.users(), summary.refreshTokens(), summary.verificationTokens(), summary.millis());
+            return summary;
+        }
+    }
+
+    private void copy(Connection connection) throws SQLException {
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        // One pass per table over the same seeded stream: rows never have to be held in memory,
+        // and users are in place before the tokens that reference them.
+        for (Table table : Table.values()) {
+            CopyIn copy = pg.getCopyAPI().copyIn(table.copySql);
+            StringBuilder rows = new StringBuilder(FLUSH_BYTES * 2);
+            StringBuilder discarded = new StringBuilder();
+            Random random = new Random(seed);
+            for (int i = 0; i < users; i++) {
+                appendUser(random, i, table, rows, discarded);
+                discarded.setLength(0);
+                if (rows.length() >= FLUSH_BYTES) {
+                    flush(copy, rows);
+                }
+            }
+            flush(copy, rows);
+            copy.endCopy();
+        }
+    }
+
+    private void appendUser(Random random, int i, Table table, StringBuilder rows, StringBuilder discarded) {
+        UUID id = new UUID(random.nextLong(), random.nextLong());
+        boolean pending = random.nextDouble() < pendingRatio;
+        boolean google = !pending && random.nextDouble() < googleRatio;
+        LocalDateTime createdAt = EPOCH.minusMinutes(random.nextInt(3 * 365 * 24 * 60));
+        LocalDateTime sentAt = pending ? EPOCH.minusMinutes(random.nextInt(60 * 24 * 14)) : null;
+
+        if (table == Table.USERS) {
+            rows.append(id).append(',')
+                    .append("user").append(i).append(',')
+                    .append("user").append(i).append(EMAIL_DOMAIN).append(',')
+                    .append(google ? "" : PASSWORD_HASH).append(',')
+                    .append(!pending).append(',')
+                    .append(i % 5000 == 0 ? "ADMIN" : "CUSTOMER").append(',')
+                    .append(google ? "https://lh3.googleusercontent.com/a/u" + i : "").append(',')
+                    .append(TIMESTAMP.format(createdAt)).append(',')
+                    .append(TIMESTAMP.format(createdAt)).append(',')
+                    .append(0).append(',')
+                    .append(sentAt == null ? "" : TIMESTAMP.format(sentAt)).append('\n');
+        }
+        if (pending) {
+            appendVerificationTokens(table == Table.VERIFICATION_TOKENS ? rows : discarded, random, id, sentAt);
+        } else {
+            appendRefreshTokens(table == Table.REFRESH_TOKENS ? rows : discarded, random, id, i);
+        }
+    }
+
+    private void appendRefreshTokens(StringBuilder rows, Random random, UUID userId, int userIndex) {
+        int count = Math.min(maxTokensPerUser, (int) Math.floor(Math.pow(1 - random.nextDouble(), -1 / tokenSkew)));
+        UUID[] families = new UUID[Math.min(count, 1 + random.nextInt(3))];
+        for (int f = 0; f < families.length; f++) {
+            families[f] = new UUID(random.nextLong(), random.nextLong());
+        }
+        LocalDateTime issuedAt = EPOCH.minusDays(random.nextInt(180));
+        for (int t = 0; t < count; t++) {
+            int family = t % families.length;
+            boolean newest = t >= count - families.length;
+            // Rotation revokes the previous token; each family's newest one is live unless the session ended.
+            boolean revoked = !newest || random.nextDouble() < 0.1;
+            LocalDateTime expiresAt = issuedAt.plusDays(7);
+            rows.append(new UUID(random.nextLong(), random.nextLong())).append(',')
+                    .append(sha256("refresh:" + userIndex + ":" + t)).append(',')
+                    .append(TIMESTAMP.format(expiresAt)).append(',')
+                    .append(revoked).append(',')
+                    .append(userId).append(',')
+                    .append(families[family]).append(',')
+                    .append("device-").append(family).append('\n');
+            issuedAt = issuedAt.plusMinutes(1 + random.nextInt(180 * 24 * 60 / count + 1));
+        }
+    }
+
+    private void appendVerificationTokens(StringBuilder rows, Random random, UUID userId, LocalDateTime sentAt) {
+        int resends = 1 + random.nextInt(3);
+        for (int r = 0; r < resends; r++) {
+            LocalDateTime expiresAt = sentAt.plusMinutes(15L * (r + 1));
+            rows.append(new UUID(random.nextLong(), random.nextLong())).append(',')
+                    .append(String.format("%06d", random.nextInt(1_000_000))).append(',')
+                    .append(TIMESTAMP.format(expiresAt)).append(',')
+                    .append(false).append(',')
+                    .append(userId).append('\n');
+        }
+    }
+
+    private static void flush(CopyIn copy, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private String fingerprint() {
+        return "fixtures seed=" + seed + " users=" + users + " pending=" + pendingRatio + " google=" + googleRatio
+                + " skew=" + tokenSkew + " max-tokens=" + maxTokensPerUser + " families=1-3";
+    }
+
+    private static String loadedFingerprint(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select obj_description('users'::regclass, 'pg_class')")) {
+            return result.next() ? result.getString(1) : null;
+        }
+    }
+
+    private static Summary summarize(Connection connection, long start) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("""
+                     select (select count(*) from users), (select count(*) from refresh_tokens),
+                            (select count(*) from verification_tokens)""")) {
+            result.next();
+            return new Summary(result.getLong(1), result.getLong(2), result.getLong(3),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
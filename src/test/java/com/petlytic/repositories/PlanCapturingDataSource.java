@@ -0,0 +1,105 @@
+package com.petlytic.repositories;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs {@code EXPLAIN (ANALYZE, BUFFERS)} on every prepared statement issued by the current thread
+ * inside {@link #capture}, with the parameters Hibernate actually bound, before letting the
+ * statement itself run. ANALYZE executes writes too, so captures belong in a rolled-back transaction.
+ */
+class PlanCapturingDataSource extends DelegatingDataSource {
+    private static final ThreadLocal<List<CapturedPlan>> PLANS = new ThreadLocal<>();
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+
+    record CapturedPlan(String sql, String json) {
+    }
+
+    PlanCapturingDataSource(DataSource target) {
+        super(target);
+    }
+
+    static List<CapturedPlan> capture(Runnable work) {
+        List<CapturedPlan> plans = new ArrayList<>();
+        PLANS.set(plans);
+        try {
+            work.run();
+            return plans;
+        } finally {
+            PLANS.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(PlanCapturingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                        return explaining(connection, (PreparedStatement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement explaining(Connection connection, PreparedStatement statement, String sql) {
+        List<Object[]> bindings = new ArrayList<>();
+        List<Method> setters = new ArrayList<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                setters.add(method);
+                bindings.add(args);
+            } else if (name.equals("clearParameters")) {
+                setters.clear();
+                bindings.clear();
+            } else if (EXECUTE.contains(name) && (args == null || args.length == 0) && PLANS.get() != null) {
+                PLANS.get().add(new CapturedPlan(sql, explain(connection, sql, setters, bindings)));
+            }
+            return invoke(statement, method, args);
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(PlanCapturingDataSource.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+    }
+
+    private static String explain(Connection connection, String sql, List<Method> setters, List<Object[]> bindings) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement("explain (analyze, buffers, format json) " + sql)) {
+            for (int i = 0; i < setters.size(); i++) {
+                setters.get(i).invoke(explain, bindings.get(i));
+            }
+            try (ResultSet result = explain.executeQuery()) {
+                result.next();
+                return result.getString(1);
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
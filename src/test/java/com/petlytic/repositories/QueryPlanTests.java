@@ -0,0 +1,236 @@
+package com.petlytic.repositories;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petlytic.fixtures.FixtureGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Plans of the repository queries against production-shaped data: no sequential scans, and
+ * every statement within the latency budget. Runs in its own database so the fixtures neither
+ * disturb other tests nor have to be reloaded on every run. Scale up with
+ * {@code -Dfixtures.users=2000000}; {@code findAll()} is left out, it reads the whole table by design.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "audit.enabled=false")
+class QueryPlanTests {
+    private static final String DATABASE = "petlytic_query_plans";
+    private static final long SEED = 20260101L;
+    private static final int USERS = Integer.getInteger("fixtures.users", 50_000);
+    private static final double LATENCY_BUDGET_MILLIS = Double.parseDouble(System.getProperty("plans.latency-budget", "25"));
+
+    @DynamicPropertySource
+    static void planDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", QueryPlanTests::createDatabase);
+    }
+
+    @TestConfiguration
+    static class Capture {
+        @Bean
+        static BeanPostProcessor planCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? new PlanCapturingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private VerificationTokenRepository verificationTokenRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UUID heavyUserId;
+    private String activeEmail;
+    private UUID pendingUserId;
+    private String pendingEmail;
+    private String pendingCode;
+    private List<String> tokenDigests;
+    private UUID heavyFamilyId;
+
+    @BeforeAll
+    void loadFixtures() throws SQLException {
+        new FixtureGenerator(SEED, USERS).load(dataSource);
+
+        // Worst cases on purpose: the user with the most tokens, the pending user with the most codes.
+        heavyUserId = jdbcTemplate.queryForObject(
+                "select user_id from refresh_tokens group by user_id order by count(*) desc, user_id limit 1", UUID.class);
+        activeEmail = jdbcTemplate.queryForObject("select email from users where id = ?", String.class, heavyUserId);
+        Map<String, Object> pending = jdbcTemplate.queryForMap("""
+                select u.id, u.email, max(t.verification_code) as code from users u
+                join verification_tokens t on t.user_id = u.id
+                group by u.id, u.email order by count(*) desc, u.id limit 1""");
+        pendingUserId = (UUID) pending.get("id");
+        pendingEmail = (String) pending.get("email");
+        pendingCode = (String) pending.get("code");
+        heavyFamilyId = jdbcTemplate.queryForObject(
+                "select family_id from refresh_tokens where user_id = ? limit 1", UUID.class, heavyUserId);
+        tokenDigests = jdbcTemplate.queryForList("select token from refresh_tokens order by id limit 50", String.class);
+    }
+
+    @Test
+    void userRepositoryPlans() {
+        assertPlans("findById", () -> userRepository.findById(heavyUserId));
+        assertPlans("findByEmail", () -> userRepository.findByEmail(activeEmail));
+        assertPlans("existsByEmail", () -> userRepository.existsByEmail(pendingEmail));
+        assertPlans("upsertGoogleUser", () -> userRepository.upsertGoogleUser("user1", activeEmail, null));
+        assertPlans("scroll (user listing)", () -> userRepository.scroll(null, Sort.by("id"), 50,
+                ScrollPosition.forward(Map.of("id", heavyUserId))));
+        assertPlans("activateWithNonce", () -> userRepository.activateWithNonce(
+                pendingUserId, 0, LocalDateTime.of(2026, 1, 1, 0, 0)));
+        assertPlans("reissueWithNonce", () -> userRepository.reissueWithNonce(
+                pendingUserId, 0, LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void refreshTokenRepositoryPlans() {
+        assertPlans("findByToken", () -> refreshTokenRepository.findByToken(tokenDigests.get(0)));
+        assertPlans("findByRawToken", () -> refreshTokenRepository.findByRawToken("not-a-stored-token"));
+        assertPlans("findStatesByTokenIn", () -> refreshTokenRepository.findStatesByTokenIn(tokenDigests));
+        assertPlans("findAllValidTokenByUser", () -> refreshTokenRepository.findAllValidTokenByUser(heavyUserId));
+        assertPlans("findLiveAccessTokensByUser", () -> refreshTokenRepository.findLiveAccessTokensByUser(
+                heavyUserId, LocalDateTime.of(2026, 1, 1, 0, 0)));
+        assertPlans("findActiveSessionsByUser", () -> refreshTokenRepository.findActiveSessionsByUser(
+                heavyUserId, LocalDateTime.of(2026, 1, 1, 0, 0)));
+        assertPlans("findLiveAccessTokensByFamilyIn", () -> refreshTokenRepository.findLiveAccessTokensByFamilyIn(
+                List.of(heavyFamilyId), LocalDateTime.of(2026, 1, 1, 0, 0)));
+        assertPlans("revokeFamily", () -> refreshTokenRepository.revokeFamily(heavyFamilyId));
+        assertPlans("revokeAllValidTokensByUser", () -> refreshTokenRepository.revokeAllValidTokensByUser(heavyUserId));
+        assertPlans("revokeByIdIn", () -> refreshTokenRepository.revokeByIdIn(List.of(UUID.randomUUID())));
+        assertPlans("findLiveAccessTokensOfEndedSessions", () -> refreshTokenRepository.findLiveAccessTokensOfEndedSessions(
+                LocalDateTime.of(2026, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void verificationTokenRepositoryPlans() {
+        assertPlans("findByUserAndVerificationCode", () -> verificationTokenRepository.findByUserAndVerificationCode(
+                userRepository.getReferenceById(pendingUserId), pendingCode));
+        assertPlans("deleteAllByUser", () -> verificationTokenRepository.deleteAllByUser(
+                userRepository.getReferenceById(pendingUserId)));
+        assertPlans("consumeVerificationCode", () -> verificationTokenRepository.consumeVerificationCode(
+                pendingEmail, pendingCode, LocalDateTime.of(2026, 1, 1, 0, 0)));
+    }
+
+    private void assertPlans(String query, Runnable call) {
+        // Cached results would skip the statements under test.
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<PlanCapturingDataSource.CapturedPlan> plans = transaction.execute(status -> {
+            status.setRollbackOnly();
+            return PlanCapturingDataSource.capture(() -> {
+                call.run();
+                // Derived deletes only reach the database on flush.
+                entityManager.flush();
+            });
+        });
+
+        assertFalse(plans.isEmpty(), query + " issued no statements");
+        List<String> problems = new ArrayList<>();
+        for (PlanCapturingDataSource.CapturedPlan plan : plans) {
+            JsonNode root = readPlan(plan.json());
+            double executionMillis = root.path("Execution Time").asDouble();
+            if (executionMillis > LATENCY_BUDGET_MILLIS) {
+                problems.add(String.format("%.2f ms exceeds the %.0f ms budget", executionMillis, LATENCY_BUDGET_MILLIS));
+            }
+            collectSeqScans(root.path("Plan"), problems);
+            if (!problems.isEmpty()) {
+                fail(query + ": " + String.join("; ", problems) + "\n" + plan.sql() + "\n" + plan.json());
+            }
+        }
+    }
+
+    private JsonNode readPlan(String json) {
+        try {
+            return objectMapper.readTree(json).get(0);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> problems) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            problems.add("sequential scan on " + node.path("Relation Name").asText()
+                    + " (" + node.path("Actual Rows").asLong() + " rows, "
+                    + node.path("Rows Removed by Filter").asLong() + " removed by filter, "
+                    + (node.path("Shared Hit Blocks").asLong() + node.path("Shared Read Blocks").asLong()) + " buffers)");
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, problems);
+        }
+    }
+
+    private static String createDatabase() {
+        String url = System.getenv("SPRING_DATASOURCE_URL");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getenv("SPRING_DATASOURCE_USERNAME"), System.getenv("SPRING_DATASOURCE_PASSWORD"));
+             Statement statement = connection.createStatement()) {
+            try (ResultSet exists = statement.executeQuery("select 1 from pg_database where datname = '" + DATABASE + "'")) {
+                if (!exists.next()) {
+                    statement.execute("create database " + DATABASE);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the query plan database", e);
+        }
+        // jdbc:postgresql://host:port/database?parameters
+        return url.replaceFirst("^(jdbc:postgresql://[^/]+/)[^?]*", "$1" + DATABASE);
+    }
+}
@@ -0,0 +1,188 @@
+package com.petlytic.repositories;
+
+import com.petlytic.dtos.requests.VerifyUserDTO;
+import com.petlytic.models.User;
+import com.petlytic.models.VerificationToken;
+import com.petlytic.models.enums.Role;
+import com.petlytic.services.AuthenticationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserRepositoryTests {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VerificationTokenRepository verificationTokenRepository;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = userRepository.save(User.builder()
+                .username("cache-" + suffix)
+                .email("cache-" + suffix + "@petlytic.test")
+                .role(Role.CUSTOMER)
+                .active(false)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void findByEmailIsServedFromSecondLevelCache() {
+        userRepository.findByEmail(user.getEmail()).orElseThrow();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        userRepository.findByEmail(user.getEmail()).orElseThrow();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void updateInvalidatesCachedUser() {
+        User cached = userRepository.findByEmail(user.getEmail()).orElseThrow();
+        cached.setPhoneNumber("0900000000");
+        userRepository.save(cached);
+
+        assertEquals("0900000000", userRepository.findByEmail(user.getEmail()).orElseThrow().getPhoneNumber());
+    }
+
+    @Test
+    void verificationThroughNativeQueryEvictsCachedUser() {
+        assertFalse(userRepository.findByEmail(user.getEmail()).orElseThrow().isEnabled());
+
+        verificationTokenRepository.save(VerificationToken.builder()
+                .user(user)
+                .verificationCode("123456")
+                .verificationExpiration(LocalDateTime.now().plusMinutes(15))
+                .build());
+
+        VerifyUserDTO input = new VerifyUserDTO();
+        input.setEmail(user.getEmail());
+        input.setVerificationCode("123456");
+        authenticationService.verifyUser(input);
+
+        assertTrue(userRepository.findByEmail(user.getEmail()).orElseThrow().isEnabled());
+    }
+
+    @Test
+    void concurrentGoogleFirstLoginsProvisionOneUser() throws Exception {
+        String email = "google-" + UUID.randomUUID() + "@petlytic.test";
+        int logins = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userRepository.upsertGoogleUser("Google User", email, "https://example.test/a.png");
+                }));
+            }
+            start.countDown();
+
+            Set<UUID> ids = results.stream().map(this::join).map(User::getId).collect(Collectors.toSet());
+            assertEquals(1, ids.size());
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users where email = ?", Integer.class, email));
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("delete from users where email = ?", email);
+        }
+    }
+
+    @Test
+    void concurrentGoogleFirstLoginsWithTheSameNameGetDistinctUsernames() throws Exception {
+        String prefix = "google-" + UUID.randomUUID();
+        String name = "Same Name " + prefix;
+        int logins = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                String email = prefix + "-" + i + "@petlytic.test";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userRepository.upsertGoogleUser(name, email, null);
+                }));
+            }
+            start.countDown();
+
+            Set<String> usernames = results.stream().map(this::join).map(User::getUsername).collect(Collectors.toSet());
+            assertEquals(logins, usernames.size());
+            assertTrue(usernames.contains(name));
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("delete from users where email like ?", prefix + "%");
+        }
+    }
+
+    @Test
+    void googleUpsertActivatesExistingUserAndKeepsTakenUsernameUnique() {
+        assertFalse(userRepository.findByEmail(user.getEmail()).orElseThrow().isEnabled());
+
+        User activated = userRepository.upsertGoogleUser("Someone", user.getEmail(), null);
+        assertEquals(user.getId(), activated.getId());
+        assertTrue(userRepository.findByEmail(user.getEmail()).orElseThrow().isEnabled());
+
+        String email = "google-" + UUID.randomUUID() + "@petlytic.test";
+        try {
+            assertEquals(email, userRepository.upsertGoogleUser(user.getUsername(), email, null).getUsername());
+        } finally {
+            jdbcTemplate.update("delete from users where email = ?", email);
+        }
+    }
+
+    private User join(Future<User> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,236 @@
+package com.petlytic.services;
+
+import com.petlytic.dtos.requests.LoginUserDTO;
+import com.petlytic.dtos.requests.RefreshTokenDTO;
+import com.petlytic.dtos.requests.RegisterUserDTO;
+import com.petlytic.dtos.responses.LoginResponse;
+import com.petlytic.exceptions.AuthException;
+import com.petlytic.exceptions.EmailAlreadyExistsException;
+import com.petlytic.models.RefreshToken;
+import com.petlytic.models.User;
+import com.petlytic.models.enums.AuthErrorCode;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.RefreshTokenRepository;
+import com.petlytic.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AuthenticationServiceTests {
+    private static final String PASSWORD = "secret-password";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private String previousSession;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        // Tokens carry the username and refresh resolves it as an email.
+        user = userRepository.save(User.builder()
+                .username("login-" + suffix + "@petlytic.test")
+                .email("login-" + suffix + "@petlytic.test")
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build());
+        // Another device's session, from before session families.
+        previousSession = "previous-session-" + suffix;
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .token(previousSession)
+                .revoked(false)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void authenticateRunsOneLookupOneSessionQueryAndOneInsert() {
+        LoginUserDTO input = login("phone");
+
+        // Measure the cold path; a warm natural-id cache would skip the user select.
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        LoginResponse response = authenticationService.authenticate(input);
+
+        assertNotNull(response.getAccessToken());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(2, refreshTokenRepository.findAllValidTokenByUser(user.getId()).size());
+    }
+
+    @Test
+    void loginFromTheSameDeviceReplacesItsSession() {
+        LoginResponse first = authenticationService.authenticate(login("phone"));
+        LoginResponse second = authenticationService.authenticate(login("phone"));
+
+        assertFalse(jwtService.isTokenValid(first.getAccessToken(), user));
+        assertTrue(jwtService.isTokenValid(second.getAccessToken(), user));
+        assertEquals(2, refreshTokenRepository.findAllValidTokenByUser(user.getId()).size());
+    }
+
+    @Test
+    void loginsWithoutADeviceIdAlwaysOpenNewSessions() {
+        LoginResponse first = authenticationService.authenticate(login(null));
+        LoginResponse second = authenticationService.authenticate(login(null));
+
+        assertTrue(jwtService.isTokenValid(first.getAccessToken(), user));
+        assertTrue(jwtService.isTokenValid(second.getAccessToken(), user));
+        assertEquals(3, refreshTokenRepository.findAllValidTokenByUser(user.getId()).size());
+    }
+
+    @Test
+    void loginsBeyondTheCapEvictTheLeastRecentlyRefreshedSession() {
+        for (int i = 0; i < 5; i++) {
+            authenticationService.authenticate(login("device-" + i));
+        }
+
+        assertEquals(5, refreshTokenRepository.findActiveSessionsByUser(user.getId(), LocalDateTime.now()).size());
+        assertTrue(refreshTokenRepository.findByToken(previousSession).orElseThrow().isRevoked());
+    }
+
+    @Test
+    void logoutEndsOnlyItsOwnSession() {
+        LoginResponse response = authenticationService.authenticate(login("phone"));
+        assertTrue(jwtService.isTokenValid(response.getAccessToken(), user));
+
+        authenticationService.logout(user, response.getAccessToken());
+
+        assertFalse(jwtService.isTokenValid(response.getAccessToken(), user));
+        assertEquals(List.of(previousSession), refreshTokenRepository.findAllValidTokenByUser(user.getId()).stream()
+                .map(RefreshToken::getToken).toList());
+    }
+
+    @Test
+    void refreshTokenReuseRevokesOnlyThatSessionFamily() {
+        LoginResponse other = authenticationService.authenticate(login("laptop"));
+        LoginResponse login = authenticationService.authenticate(login("phone"));
+        LoginResponse rotated = authenticationService.refreshToken(refresh(login.getRefreshToken()));
+        assertTrue(jwtService.isTokenValid(rotated.getAccessToken(), user));
+
+        assertThrows(AuthException.class, () -> authenticationService.refreshToken(refresh(login.getRefreshToken())));
+
+        assertFalse(jwtService.isTokenValid(login.getAccessToken(), user));
+        assertFalse(jwtService.isTokenValid(rotated.getAccessToken(), user));
+        assertThrows(AuthException.class, () -> authenticationService.refreshToken(refresh(rotated.getRefreshToken())));
+        assertTrue(jwtService.isTokenValid(other.getAccessToken(), user));
+        assertNotNull(authenticationService.refreshToken(refresh(other.getRefreshToken())).getAccessToken());
+    }
+
+    @Test
+    void unknownEmailsAndUnverifiedAccountsLookLikeBadCredentials() {
+        LoginUserDTO unknown = login("phone");
+        unknown.setEmail("unknown-" + UUID.randomUUID() + "@petlytic.test");
+        assertEquals(AuthErrorCode.BAD_CREDENTIALS,
+                assertThrows(AuthException.class, () -> authenticationService.authenticate(unknown)).getCode());
+
+        user.setActive(false);
+        userRepository.save(user);
+        LoginUserDTO wrongPassword = login("phone");
+        wrongPassword.setPassword("wrong-password");
+        assertEquals(AuthErrorCode.BAD_CREDENTIALS,
+                assertThrows(AuthException.class, () -> authenticationService.authenticate(wrongPassword)).getCode());
+        assertEquals(AuthErrorCode.ACCOUNT_NOT_VERIFIED,
+                assertThrows(AuthException.class, () -> authenticationService.authenticate(login("phone"))).getCode());
+    }
+
+    @Test
+    void signupRacingAnotherSignupReportsTheEmailAsTaken() {
+        String email = "race-" + UUID.randomUUID() + "@petlytic.test";
+        RegisterUserDTO input = new RegisterUserDTO();
+        input.setEmail(email);
+        input.setPassword(PASSWORD);
+        input.setUsername("racer-" + UUID.randomUUID());
+
+        CompletableFuture<User> signup = new TransactionTemplate(transactionManager).execute(status -> {
+            // The other signup's row is not committed yet, so this one passes the existence check.
+            userRepository.saveAndFlush(User.builder().username(email).email(email).role(Role.CUSTOMER).build());
+            CompletableFuture<User> racing = CompletableFuture.supplyAsync(() -> authenticationService.signup(input));
+            awaitBlockedOnLock();
+            return racing;
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> signup.get(10, TimeUnit.SECONDS));
+        try {
+            assertInstanceOf(EmailAlreadyExistsException.class, thrown.getCause());
+        } finally {
+            jdbcTemplate.update("delete from users where email = ?", email);
+        }
+    }
+
+    private void awaitBlockedOnLock() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("select count(*) from pg_stat_activity where wait_event_type = 'Lock'", Integer.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "signup never waited for the other insert");
+            Thread.onSpinWait();
+        }
+    }
+
+    private LoginUserDTO login(String device) {
+        LoginUserDTO input = new LoginUserDTO();
+        input.setEmail(user.getEmail());
+        input.setPassword(PASSWORD);
+        input.setDevice(device);
+        return input;
+    }
+
+    private static RefreshTokenDTO refresh(String token) {
+        RefreshTokenDTO input = new RefreshTokenDTO();
+        input.setRefreshToken(token);
+        return input;
+    }
+}
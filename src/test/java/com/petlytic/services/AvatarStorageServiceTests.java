@@ -0,0 +1,93 @@
+package com.petlytic.services;
+
+import com.petlytic.exceptions.InvalidUploadException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"avatars.thumbnails.sizes=32,64", "avatars.thumbnails.max-bytes=1"})
+class AvatarStorageServiceTests {
+    @TempDir
+    static Path storage;
+
+    @DynamicPropertySource
+    static void storagePath(DynamicPropertyRegistry registry) {
+        registry.add("avatars.storage.path", () -> storage.toString());
+    }
+
+    @Autowired
+    private AvatarStorageService avatarStorageService;
+
+    @Test
+    void storeIsContentAddressed() throws Exception {
+        byte[] png = image("png");
+
+        String first = avatarStorageService.store(new ByteArrayInputStream(png));
+        String second = avatarStorageService.store(new ByteArrayInputStream(png));
+
+        assertEquals(first, second);
+        assertTrue(first.matches("[0-9a-f]{64}\\.png"));
+        assertEquals(png.length, Files.size(avatarStorageService.resolve(first, null).path()));
+    }
+
+    @Test
+    void storeRejectsNonImages() {
+        InvalidUploadException ex = assertThrows(InvalidUploadException.class,
+                () -> avatarStorageService.store(new ByteArrayInputStream("not an image".getBytes())));
+
+        assertEquals(415, ex.getStatus().value());
+    }
+
+    @Test
+    void thumbnailsAreGeneratedOnceAndEvictedBeyondBudget() throws Exception {
+        String name = avatarStorageService.store(new ByteArrayInputStream(image("jpeg")));
+
+        Path small = avatarStorageService.resolve(name, 32).path();
+        assertEquals(32, ImageIO.read(small.toFile()).getWidth());
+        long generatedAt = Files.getLastModifiedTime(small).toMillis();
+        assertEquals(small, avatarStorageService.resolve(name, 32).path());
+        assertEquals(generatedAt, Files.getLastModifiedTime(small).toMillis());
+
+        // A one-byte budget keeps only the most recently served thumbnail.
+        Path large = avatarStorageService.resolve(name, 64).path();
+        assertTrue(Files.exists(large));
+        assertFalse(Files.exists(small));
+    }
+
+    @Test
+    void unsupportedThumbnailSizeIsRejected() throws Exception {
+        String name = avatarStorageService.store(new ByteArrayInputStream(image("png")));
+
+        assertThrows(InvalidUploadException.class, () -> avatarStorageService.resolve(name, 33));
+    }
+
+    private static byte[] image(String format) throws Exception {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(ThreadLocalRandom.current().nextInt(0xFFFFFF)));
+        graphics.fillRect(0, 0, 300, 200);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
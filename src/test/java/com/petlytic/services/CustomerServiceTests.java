@@ -0,0 +1,157 @@
+package com.petlytic.services;
+
+import com.petlytic.dtos.requests.CreatePetDTO;
+import com.petlytic.dtos.responses.CustomerProfileResponse;
+import com.petlytic.models.Clinic;
+import com.petlytic.models.Customer;
+import com.petlytic.models.Pet;
+import com.petlytic.models.User;
+import com.petlytic.models.Visit;
+import com.petlytic.models.enums.PetSpecies;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.CustomerRepository;
+import com.petlytic.repositories.UserRepository;
+import com.petlytic.repositories.projections.PetSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class CustomerServiceTests {
+    private static final int PETS = 40;
+    private static final int VISITS_PER_PET = 3;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private List<UUID> clinicIds;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = userRepository.save(User.builder()
+                .username("owner-" + suffix)
+                .email("owner-" + suffix + "@petlytic.test")
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build());
+
+        clinicIds = transactionTemplate.execute(status -> {
+            Clinic north = Clinic.builder().name("North Clinic " + suffix).build();
+            Clinic south = Clinic.builder().name("South Clinic " + suffix).build();
+            entityManager.persist(north);
+            entityManager.persist(south);
+
+            Customer customer = Customer.builder()
+                    .user(entityManager.getReference(User.class, user.getId()))
+                    .fullName("Owner " + suffix)
+                    .build();
+            customer.getClinics().add(north);
+            customer.getClinics().add(south);
+            for (int i = 0; i < PETS; i++) {
+                Pet pet = Pet.builder().name("Pet " + i).species(PetSpecies.DOG).build();
+                for (int v = 0; v < VISITS_PER_PET; v++) {
+                    pet.getVisits().add(Visit.builder()
+                            .pet(pet)
+                            .clinic(v % 2 == 0 ? north : south)
+                            .visitedAt(LocalDateTime.now().minusDays(i * VISITS_PER_PET + v))
+                            .reason("Checkup")
+                            .build());
+                }
+                customer.addPet(pet);
+            }
+            customerRepository.save(customer);
+            return List.of(north.getId(), south.getId());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.findByUserId(user.getId()).ifPresent(customerRepository::delete);
+        jdbcTemplate.update("delete from clinics where id in (?, ?)", clinicIds.get(0), clinicIds.get(1));
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void profileLoadsInFourQueriesRegardlessOfPetCount() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        CustomerProfileResponse profile = customerService.getProfile(user);
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(PETS, profile.getPets().size());
+        assertEquals(VISITS_PER_PET, profile.getPets().get(0).getVisitCount());
+        assertEquals(2, profile.getClinics().size());
+        assertEquals(10, profile.getRecentVisits().size());
+    }
+
+    @Test
+    void petsGraphAndBatchFetchingAvoidNPlusOne() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        int visits = transactionTemplate.execute(status -> customerRepository.findWithPetsByUserId(user.getId())
+                .orElseThrow()
+                .getPets().stream()
+                .mapToInt(pet -> pet.getVisits().size())
+                .sum());
+
+        assertEquals(PETS * VISITS_PER_PET, visits);
+        // One query for customer, user and pets; one batch for all visit collections.
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addingAPetLeavesTheOtherPetsUnloaded() {
+        CreatePetDTO input = new CreatePetDTO();
+        input.setName("Added");
+        input.setSpecies(PetSpecies.values()[0]);
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<PetSummary> pets = customerService.addPet(user, input);
+
+        assertEquals(PETS + 1, pets.size());
+        // Customer id, pet insert, summaries.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,131 @@
+package com.petlytic.services;
+
+import com.petlytic.cores.denylist.TokenDenylist;
+import com.petlytic.models.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class JwtServiceTests {
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtKeyService jwtKeyService;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.jwt.secret-key}")
+    private String secretKey;
+
+    @Value("${cache.invalidation.channel}")
+    private String channel;
+
+    private final User user = new User("jwt@petlytic.test", "jwt@petlytic.test", null);
+
+    @Test
+    void tokensAreSignedWithAPublishedKey() {
+        String token = jwtService.generateToken(user);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        String kid = jwtKeyService.currentSigningKey().kid();
+        assertTrue(header.contains("\"alg\":\"ES256\""));
+        assertTrue(header.contains("\"kid\":\"" + kid + "\""));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) jwtKeyService.jwks().get("keys");
+        assertTrue(keys.stream().anyMatch(key -> kid.equals(key.get("kid"))));
+
+        assertEquals(user.getUsername(), jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void legacyHs256TokensAreRejectedByDefault() {
+        assertThrows(UnsupportedJwtException.class, () -> jwtService.extractUsername(legacyToken()));
+    }
+
+    @Test
+    void legacyHs256TokensAreAcceptedOnlyUntilTheCutOff() {
+        try {
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Enabled", true);
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Until", Instant.now().plusSeconds(60));
+            double accepted = meterRegistry.counter("security.jwt.legacy.accepted").count();
+            assertEquals(user.getUsername(), jwtService.extractUsername(legacyToken()));
+            assertEquals(accepted + 1, meterRegistry.counter("security.jwt.legacy.accepted").count());
+            // Without a jti it could not be revoked, so it is no bearer credential.
+            assertFalse(jwtService.isTokenValid(legacyToken(), user));
+
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Until", Instant.now().minusSeconds(1));
+            assertThrows(UnsupportedJwtException.class, () -> jwtService.extractUsername(legacyToken()));
+        } finally {
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Enabled", false);
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Until", null);
+        }
+    }
+
+    @Test
+    void revocationsFromOtherNodesAreDenied() throws InterruptedException {
+        JwtService.IssuedToken issued = jwtService.issueAccessToken(Map.of(), user);
+        assertTrue(jwtService.isTokenValid(issued.token(), user));
+
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class,
+                channel, "other-node|ACCESS_TOKEN:" + issued.id() + "@" + issued.expiresAt().toEpochMilli());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!tokenDenylist.isDenied(issued.id()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(jwtService.isTokenValid(issued.token(), user));
+    }
+
+    @Test
+    void tokensWithUnknownKidAreRejected() {
+        String forged = Jwts.builder()
+                .setHeaderParam("kid", "unknown")
+                .setSubject(user.getUsername())
+                .signWith(Keys.keyPairFor(SignatureAlgorithm.ES256).getPrivate(), SignatureAlgorithm.ES256)
+                .compact();
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtService.extractUsername(forged));
+    }
+
+    private String legacyToken() {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
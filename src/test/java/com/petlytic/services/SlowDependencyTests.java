@@ -0,0 +1,148 @@
+package com.petlytic.services;
+
+import com.petlytic.cores.resilience.CircuitState;
+import com.petlytic.cores.resilience.DependencyGuard;
+import com.petlytic.dtos.requests.GoogleLoginDTO;
+import com.petlytic.exceptions.DependencyUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.MailException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Google and SMTP replaced by local stand-ins that accept connections but answer too slowly.
+ */
+@SpringBootTest(properties = {
+        "google.read-timeout=300",
+        "mail.smtp.connect-timeout=300",
+        "mail.smtp.read-timeout=300",
+        "resilience.google.window-size=2",
+        "resilience.google.minimum-calls=2",
+        "resilience.smtp.window-size=2",
+        "resilience.smtp.minimum-calls=2",
+})
+class SlowDependencyTests {
+    private static final HttpServer slowGoogle = slowHttpServer();
+    private static final ServerSocket silentSmtp = silentServerSocket();
+
+    @DynamicPropertySource
+    static void standIns(DynamicPropertyRegistry registry) {
+        registry.add("google.certs-url", () -> "http://localhost:" + slowGoogle.getAddress().getPort() + "/certs");
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", silentSmtp::getLocalPort);
+    }
+
+    @AfterAll
+    static void stopStandIns() throws IOException {
+        slowGoogle.stop(0);
+        silentSmtp.close();
+    }
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private DependencyGuard googleGuard;
+
+    @Autowired
+    private DependencyGuard smtpGuard;
+
+    @Value("${spring.security.oauth2.client.registration.google.client-id}")
+    private String googleClientId;
+
+    @Test
+    void slowGoogleTimesOutThenFailsFast() {
+        GoogleLoginDTO login = new GoogleLoginDTO();
+        login.setIdToken(unsignedIdToken());
+
+        for (int i = 0; i < 2; i++) {
+            long elapsed = timed(() -> assertThrows(DependencyUnavailableException.class, () -> authenticationService.loginWithGoogle(login)));
+            assertTrue(elapsed >= 250 && elapsed < 2000, "call should end at the read timeout, took " + elapsed + " ms");
+        }
+
+        assertEquals(CircuitState.OPEN, googleGuard.getState());
+        long rejected = timed(() -> assertThrows(DependencyUnavailableException.class, () -> authenticationService.loginWithGoogle(login)));
+        assertTrue(rejected < 100, "open circuit should reject immediately, took " + rejected + " ms");
+    }
+
+    @Test
+    void silentSmtpServerTimesOutThenFailsFast() {
+        for (int i = 0; i < 2; i++) {
+            long elapsed = timed(() -> assertThrows(MailException.class, () -> emailService.sendVerificationCode("slow@petlytic.test", "123456")));
+            assertTrue(elapsed >= 250 && elapsed < 2000, "send should end at the read timeout, took " + elapsed + " ms");
+        }
+
+        assertEquals(CircuitState.OPEN, smtpGuard.getState());
+        long rejected = timed(() -> assertThrows(DependencyUnavailableException.class, () -> emailService.sendVerificationCode("slow@petlytic.test", "123456")));
+        assertTrue(rejected < 100, "open circuit should reject immediately, took " + rejected + " ms");
+    }
+
+    private String unsignedIdToken() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long now = Instant.now().getEpochSecond();
+        String header = "{\"alg\":\"RS256\",\"kid\":\"test\",\"typ\":\"JWT\"}";
+        String payload = "{\"iss\":\"https://accounts.google.com\",\"aud\":\"" + googleClientId + "\",\"sub\":\"1\","
+                + "\"email\":\"slow@petlytic.test\",\"iat\":" + now + ",\"exp\":" + (now + 600) + "}";
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString("signature".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long timed(Runnable call) {
+        long start = System.nanoTime();
+        call.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static HttpServer slowHttpServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/certs", exchange -> {
+                try {
+                    Thread.sleep(3000);
+                    exchange.sendResponseHeaders(200, 2);
+                    exchange.getResponseBody().write("{}".getBytes(StandardCharsets.UTF_8));
+                } catch (InterruptedException | IOException e) {
+                    // Client gave up.
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ServerSocket silentServerSocket() {
+        try {
+            // Connections complete in the kernel backlog; no greeting is ever sent.
+            return new ServerSocket(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.petlytic.services;
+
+import com.petlytic.dtos.requests.LoginUserDTO;
+import com.petlytic.dtos.requests.RefreshTokenDTO;
+import com.petlytic.dtos.responses.LoginResponse;
+import com.petlytic.dtos.responses.TokenIntrospection;
+import com.petlytic.models.User;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TokenIntrospectionServiceTests {
+    private static final String PASSWORD = "secret-password";
+
+    @Autowired
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${security.jwt.secret-key}")
+    private String secretKey;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String email = "introspect-" + UUID.randomUUID() + "@petlytic.test";
+        user = userRepository.save(User.builder()
+                .username(email)
+                .email(email)
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.CUSTOMER)
+                .active(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void issuedTokensAreActiveAndTyped() {
+        LoginResponse login = login();
+
+        List<TokenIntrospection> results = tokenIntrospectionService.introspect(
+                List.of(login.getAccessToken(), login.getRefreshToken(), "not-a-jwt"));
+
+        assertActive(results.get(0), JwtService.ACCESS_TOKEN_TYPE);
+        assertActive(results.get(1), JwtService.REFRESH_TOKEN_TYPE);
+        assertInactive(results.get(2), "invalid");
+    }
+
+    @Test
+    void revokedTokensAreInactive() {
+        LoginResponse login = login();
+        RefreshTokenDTO refresh = new RefreshTokenDTO();
+        refresh.setRefreshToken(login.getRefreshToken());
+        LoginResponse rotated = authenticationService.refreshToken(refresh);
+        authenticationService.logout(user, rotated.getAccessToken());
+
+        List<TokenIntrospection> results = tokenIntrospectionService.introspect(
+                List.of(login.getRefreshToken(), rotated.getAccessToken()));
+
+        assertInactive(results.get(0), "revoked");
+        assertEquals(JwtService.REFRESH_TOKEN_TYPE, results.get(0).getTokenType());
+        assertInactive(results.get(1), "revoked");
+        assertEquals(JwtService.ACCESS_TOKEN_TYPE, results.get(1).getTokenType());
+    }
+
+    @Test
+    void refreshTokenWithoutAStoredRowIsNotAnActiveAccessToken() {
+        TokenIntrospection result = tokenIntrospectionService.introspect(List.of(jwtService.generateRefreshToken(user))).get(0);
+
+        assertInactive(result, "revoked");
+        assertEquals(JwtService.REFRESH_TOKEN_TYPE, result.getTokenType());
+    }
+
+    @Test
+    void expiredTokensAreInactive() {
+        long expiration = jwtService.getExpirationTime();
+        String expired;
+        try {
+            ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1_000L);
+            expired = jwtService.generateToken(user);
+        } finally {
+            ReflectionTestUtils.setField(jwtService, "jwtExpiration", expiration);
+        }
+
+        TokenIntrospection result = tokenIntrospectionService.introspect(List.of(expired)).get(0);
+
+        assertInactive(result, "expired");
+        assertEquals(user.getUsername(), result.getSubject());
+    }
+
+    @Test
+    void accessTokensWithoutAJtiAreInvalid() {
+        String legacy = Jwts.builder()
+                .setSubject(user.getUsername())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)), SignatureAlgorithm.HS256)
+                .compact();
+        TokenIntrospection result;
+        try {
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Enabled", true);
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Until", Instant.now().plusSeconds(60));
+            result = tokenIntrospectionService.introspect(List.of(legacy)).get(0);
+        } finally {
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Enabled", false);
+            ReflectionTestUtils.setField(jwtService, "legacyHs256Until", null);
+        }
+
+        assertInactive(result, "invalid");
+        assertEquals(JwtService.ACCESS_TOKEN_TYPE, result.getTokenType());
+    }
+
+    private LoginResponse login() {
+        LoginUserDTO input = new LoginUserDTO();
+        input.setEmail(user.getEmail());
+        input.setPassword(PASSWORD);
+        return authenticationService.authenticate(input);
+    }
+
+    private static void assertActive(TokenIntrospection result, String tokenType) {
+        assertTrue(result.isActive());
+        assertEquals(tokenType, result.getTokenType());
+    }
+
+    private static void assertInactive(TokenIntrospection result, String reason) {
+        assertFalse(result.isActive());
+        assertEquals(reason, result.getReason());
+    }
+}
@@ -0,0 +1,78 @@
+package com.petlytic.services;
+
+import com.petlytic.dtos.responses.UserImportReport;
+import com.petlytic.models.enums.ImportStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "users.import.chunk-size=2")
+class UserImportServiceTests {
+    private final String suffix = UUID.randomUUID().toString();
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from verification_tokens where user_id in (select id from users where email like ?)", "%" + suffix + "%");
+        jdbcTemplate.update("delete from users where email like ?", "%" + suffix + "%");
+    }
+
+    @Test
+    void importCsvReportsEveryRowAndCreatesPendingUsers() throws Exception {
+        String csv = "email,username,password\n"
+                + email("a") + ",a-" + suffix + ",secret12\n"
+                + "\"" + email("b") + "\",,\n"
+                + "not-an-email,c,secret12\n"
+                + email("a") + ",again-" + suffix + ",secret12\n"
+                + email("d") + ",d-" + suffix + ",short\n"
+                + email("e") + ",e-" + suffix + ",secret12\n";
+
+        UserImportReport report = userImportService.importCsv(stream(csv));
+
+        assertEquals(2, report.getCreated());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(3, report.getInvalid());
+        assertEquals("Password is required", report.getRows().get(1).getMessage());
+        assertEquals(ImportStatus.DUPLICATE, report.getRows().get(3).getStatus());
+        assertEquals(2, count("select count(*) from users where email like ? and is_active = false"));
+        assertEquals(2, count("select count(*) from verification_tokens t join users u on u.id = t.user_id where u.email like ?"));
+    }
+
+    @Test
+    void importNdjsonSkipsAlreadyRegisteredEmails() throws Exception {
+        userImportService.importNdjson(stream("{\"email\":\"" + email("a") + "\",\"password\":\"secret12\"}\n"));
+
+        UserImportReport report = userImportService.importNdjson(stream(
+                "{\"email\":\"" + email("a") + "\",\"password\":\"secret12\"}\n"
+                        + "{\"email\":\"" + email("b") + "\",\"password\":\"secret12\"}\n"));
+
+        assertEquals(1, report.getCreated());
+        assertEquals(1, report.getDuplicates());
+        assertEquals("Email already registered", report.getRows().get(0).getMessage());
+    }
+
+    private String email(String name) {
+        return name + "-" + suffix + "@petlytic.test";
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, "%" + suffix + "%");
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
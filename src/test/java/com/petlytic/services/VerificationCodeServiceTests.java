@@ -0,0 +1,121 @@
+package com.petlytic.services;
+
+import com.petlytic.dtos.requests.VerifyUserDTO;
+import com.petlytic.exceptions.AuthException;
+import com.petlytic.models.User;
+import com.petlytic.models.enums.AuthErrorCode;
+import com.petlytic.models.enums.Role;
+import com.petlytic.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "security.verification.mode=hmac")
+class VerificationCodeServiceTests {
+    @Autowired
+    private VerificationCodeService verificationCodeService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = userRepository.save(User.builder()
+                .username("verify-" + suffix)
+                .email("verify-" + suffix + "@petlytic.test")
+                .role(Role.CUSTOMER)
+                .active(false)
+                .verificationSentAt(verificationCodeService.issuedAt())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void signedCodeVerifiesOnceWithoutTokenRows() {
+        String code = verificationCodeService.codeFor(user);
+
+        AuthException invalid = assertThrows(AuthException.class, () -> authenticationService.verifyUser(input(wrong(code))));
+        assertEquals(AuthErrorCode.INVALID_VERIFICATION_CODE, invalid.getCode());
+        authenticationService.verifyUser(input(code));
+
+        User verified = userRepository.findByEmail(user.getEmail()).orElseThrow();
+        assertTrue(verified.isEnabled());
+        assertEquals(1, verified.getVerificationNonce());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from verification_tokens where user_id = ?", Integer.class, user.getId()));
+        AuthException reused = assertThrows(AuthException.class, () -> authenticationService.verifyUser(input(code)));
+        assertEquals(AuthErrorCode.ACCOUNT_ALREADY_VERIFIED, reused.getCode());
+    }
+
+    @Test
+    void codesConsumedConcurrentlyAreRejected() {
+        String code = verificationCodeService.codeFor(user);
+        // This node still caches the nonce another request has just moved past.
+        userRepository.findByEmail(user.getEmail());
+        jdbcTemplate.update("update users set verification_nonce = verification_nonce + 1 where id = ?", user.getId());
+
+        AuthException rejected = assertThrows(AuthException.class, () -> authenticationService.verifyUser(input(code)));
+
+        assertEquals(AuthErrorCode.INVALID_VERIFICATION_CODE, rejected.getCode());
+        assertFalse(jdbcTemplate.queryForObject("select is_active from users where id = ?", Boolean.class, user.getId()));
+    }
+
+    @Test
+    void resendsRacingAnotherResendAreRejected() {
+        jdbcTemplate.update("update users set verification_sent_at = verification_sent_at - interval '1 hour' where id = ?", user.getId());
+        userRepository.evictFromCache(user.getId());
+        userRepository.findByEmail(user.getEmail());
+        jdbcTemplate.update("update users set verification_nonce = verification_nonce + 1 where id = ?", user.getId());
+
+        AuthException rejected = assertThrows(AuthException.class, () -> authenticationService.resendVerificationCode(user.getEmail()));
+
+        assertEquals(AuthErrorCode.RESEND_TOO_SOON, rejected.getCode());
+        assertEquals(1, jdbcTemplate.queryForObject("select verification_nonce from users where id = ?", Integer.class, user.getId()));
+    }
+
+    @Test
+    void codeChangesWithNonceAndExpires() {
+        String code = verificationCodeService.codeFor(user);
+
+        assertNotEquals(code, verificationCodeService.codeFor(user.getId(), user.getVerificationSentAt(), 1));
+        assertFalse(verificationCodeService.isExpired(user, LocalDateTime.now()));
+        assertTrue(verificationCodeService.isExpired(user, LocalDateTime.now().plusHours(1)));
+        assertFalse(verificationCodeService.canResend(user, LocalDateTime.now()));
+    }
+
+    private VerifyUserDTO input(String code) {
+        VerifyUserDTO input = new VerifyUserDTO();
+        input.setEmail(user.getEmail());
+        input.setVerificationCode(code);
+        return input;
+    }
+
+    private static String wrong(String code) {
+        return code.equals("000000") ? "000001" : "000000";
+    }
+}